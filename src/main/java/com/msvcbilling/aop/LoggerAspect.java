@@ -16,13 +16,16 @@ public class LoggerAspect {
 
     @Around("com.msvcbilling.config.CommonPointcuts.greetingLoggerServices()")
     public Object loggerAround(ProceedingJoinPoint joinPoint) throws Throwable {
+        // Evitar construir los argumentos (Arrays.toString) cuando DEBUG esta deshabilitado
+        if (!logger.isDebugEnabled())
+            return joinPoint.proceed();
+
         String method = joinPoint.getSignature().getName();
-        String args = Arrays.toString(joinPoint.getArgs());
         Object result = null;
         try {
-            logger.info("El metodo {} con parametros {}", method, args);
+            logger.debug("El metodo {} con parametros {}", method, Arrays.toString(joinPoint.getArgs()));
             result = joinPoint.proceed();
-            logger.info("El metodo : {}() retorna el resultado: {}", method, result);
+            logger.debug("El metodo : {}() retorna el resultado: {}", method, result);
             return result;
         } catch (
                 Throwable e) {
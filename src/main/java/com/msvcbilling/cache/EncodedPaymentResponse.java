@@ -0,0 +1,17 @@
+package com.msvcbilling.cache;
+
+/**
+ * PaymentResponse ya serializado a JSON; gzip es null si no se comprime (desactivado o no reduce tamaño).
+ * approved indica que el pago aun puede cambiar (contracargo, devolucion) y su entrada vence antes.
+ */
+public record EncodedPaymentResponse(byte[] json, byte[] gzip, String etag, boolean approved) {
+
+    // Representacion distinta, validador distinto: un ETag fuerte no puede compartirse entre codificaciones
+    public String gzipEtag() {
+        return etag.substring(0, etag.length() - 1) + "-gz\"";
+    }
+
+    int weight() {
+        return json.length + (gzip != null ? gzip.length : 0) + etag.length() + 64;
+    }
+}
@@ -0,0 +1,152 @@
+package com.msvcbilling.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.msvcbilling.dtos.PaymentResponse;
+import com.msvcbilling.entities.PaymentStatus;
+import com.msvcbilling.events.PaymentStatusChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Respuestas de estado de pagos terminales ya codificadas (JSON y opcionalmente gzip) con ETag fuerte.
+ * Un hit solo copia bytes al stream de respuesta: sin BD, sin MapStruct ni Jackson. Acotada por bytes.
+ * approved todavia puede pasar a in_mediation/refunded/charged_back, por eso expira antes que los demas
+ * estados terminales; cualquier cambio de estado publicado invalida la entrada. La invalidacion es local:
+ * los demas nodos pueden seguir sirviendo approved tras una devolucion o contracargo hasta approved-ttl.
+ * Cada codificacion tiene su propio ETag (la variante gzip lleva el sufijo -gz).
+ */
+@Component
+public class PaymentResponseCache {
+
+    private final ObjectMapper objectMapper;
+    private final Cache<String, EncodedPaymentResponse> cache;
+    private final boolean gzipEnabled;
+
+    public PaymentResponseCache(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                @Value("${billing.response-cache.max-bytes:67108864}") long maxBytes,
+                                @Value("${billing.response-cache.approved-ttl:PT1M}") Duration approvedTtl,
+                                @Value("${billing.response-cache.final-ttl:P1D}") Duration finalTtl,
+                                @Value("${billing.response-cache.gzip:true}") boolean gzipEnabled) {
+        this.objectMapper = objectMapper;
+        this.gzipEnabled = gzipEnabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, EncodedPaymentResponse value) -> key.length() * 2 + value.weight())
+                .expireAfter(new StatusExpiry(approvedTtl, finalTtl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "billing.payment-responses");
+    }
+
+    public Optional<EncodedPaymentResponse> get(String externalReference) {
+        return Optional.ofNullable(cache.getIfPresent(externalReference));
+    }
+
+    // Vacio si el pago no es terminal: su respuesta todavia puede cambiar
+    public Optional<EncodedPaymentResponse> put(PaymentResponse response) {
+        if (response.externalReference() == null || !PaymentStatus.isTerminal(response.status()))
+            return Optional.empty();
+        EncodedPaymentResponse encoded = encode(response);
+        cache.put(response.externalReference(), encoded);
+        return Optional.of(encoded);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPaymentStatusChanged(PaymentStatusChangedEvent event) {
+        cache.invalidate(event.externalReference());
+    }
+
+    public static ResponseEntity<byte[]> toResponse(EncodedPaymentResponse encoded, String ifNoneMatch, String acceptEncoding) {
+        boolean gzip = encoded.gzip() != null && acceptEncoding != null && acceptEncoding.contains("gzip");
+        String etag = gzip ? encoded.gzipEtag() : encoded.etag();
+        if (ifNoneMatch != null && ifNoneMatch.contains(etag))
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING).build();
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip)
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        return response.body(gzip ? encoded.gzip() : encoded.json());
+    }
+
+    private EncodedPaymentResponse encode(PaymentResponse response) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(response);
+            byte[] gzip = gzipEnabled ? gzip(json) : null;
+            if (gzip != null && gzip.length >= json.length)
+                gzip = null;
+            return new EncodedPaymentResponse(json, gzip, etag(json),
+                    PaymentStatus.APPROVED.getValue().equals(response.status()));
+        } catch (
+                JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el pago " + response.externalReference(), e);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        } catch (
+                IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String etag(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (
+                NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private record StatusExpiry(Duration approvedTtl, Duration finalTtl) implements Expiry<String, EncodedPaymentResponse> {
+
+        @Override
+        public long expireAfterCreate(String key, EncodedPaymentResponse value, long currentTime) {
+            return ttlFor(value).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, EncodedPaymentResponse value, long currentTime, long currentDuration) {
+            return ttlFor(value).toNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, EncodedPaymentResponse value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        private Duration ttlFor(EncodedPaymentResponse value) {
+            return value.approved() ? approvedTtl : finalTtl;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.msvcbilling.concurrency;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limitador de concurrencia adaptativo basado en el gradiente de latencia (estilo Gradient2).
+ * Compara la latencia reciente contra una media de largo plazo: si la latencia sube, el limite baja
+ * proporcionalmente; si se mantiene, el limite crece en sqrt(limit). Ante un descarte o timeout
+ * aguas abajo aplica un decremento multiplicativo (AIMD).
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double SHORT_WINDOW_WEIGHT = 0.5;
+    private static final double LONG_WINDOW_WEIGHT = 2.0 / (600 + 1);
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final double lowPriorityShare;
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    private volatile double limit;
+    private double shortRtt;
+    private double longRtt;
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+                                      double tolerance, double smoothing, double lowPriorityShare) {
+        this.name = name;
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.lowPriorityShare = lowPriorityShare;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    public boolean isSaturated() {
+        return inflight.get() >= (int) limit;
+    }
+
+    public Optional<Permit> tryAcquire(Priority priority) {
+        int allowed = priority == Priority.LOW
+                ? Math.max(1, (int) (limit * lowPriorityShare))
+                : (int) limit;
+        while (true) {
+            int current = inflight.get();
+            if (current >= allowed)
+                return Optional.empty();
+            if (inflight.compareAndSet(current, current + 1))
+                return Optional.of(new Permit(System.nanoTime(), current + 1));
+        }
+    }
+
+    private synchronized void onSample(long rttNanos, int inflightAtStart, boolean dropped) {
+        double current = limit;
+        double updated;
+        if (dropped) {
+            updated = current * BACKOFF_RATIO;
+        } else {
+            shortRtt = shortRtt == 0 ? rttNanos : shortRtt + SHORT_WINDOW_WEIGHT * (rttNanos - shortRtt);
+            longRtt = longRtt == 0 ? rttNanos : longRtt + LONG_WINDOW_WEIGHT * (shortRtt - longRtt);
+
+            // Recuperacion cuando la latencia de largo plazo quedo muy por encima de la actual
+            if (longRtt / shortRtt > 2)
+                longRtt *= 0.95;
+
+            // Sin presion (menos de la mitad del limite en uso) no hay señal para crecer
+            if (inflightAtStart < current / 2)
+                return;
+
+            double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+            double target = current * gradient + Math.sqrt(current);
+            updated = current * (1 - smoothing) + target * smoothing;
+        }
+        limit = Math.max(minLimit, Math.min(maxLimit, updated));
+    }
+
+    public final class Permit {
+        private final long startNanos;
+        private final int inflightAtStart;
+        private boolean released;
+
+        private Permit(long startNanos, int inflightAtStart) {
+            this.startNanos = startNanos;
+            this.inflightAtStart = inflightAtStart;
+        }
+
+        public void onSuccess() {
+            release(false);
+        }
+
+        // Timeout o sobrecarga aguas abajo: reduce el limite
+        public void onDropped() {
+            release(true);
+        }
+
+        // Error no relacionado con la carga (validacion, 4xx): libera sin muestrear
+        public void onIgnore() {
+            if (released)
+                return;
+            released = true;
+            inflight.decrementAndGet();
+        }
+
+        private void release(boolean dropped) {
+            if (released)
+                return;
+            released = true;
+            inflight.decrementAndGet();
+            onSample(System.nanoTime() - startNanos, inflightAtStart, dropped);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.msvcbilling.concurrency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.msvcbilling.exceptions.ErrorResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Collections;
+
+/**
+ * Load shedding de la API de pagos. Se ejecuta antes de la cadena de seguridad para que una peticion
+ * descartada no consuma trabajo: responde 503 con Retry-After en cuanto el limite adaptativo se alcanza.
+ * Las consultas de estado solo usan una fraccion del limite, asi el checkout conserva capacidad.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@RequiredArgsConstructor
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final String PROCESS_PATH = "/billing/payments/process";
+    private static final String STATUS_PATH = "/billing/payments/status/";
+
+    private final ConcurrencyLimiters concurrencyLimiters;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return priorityOf(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Priority priority = priorityOf(request);
+        AdaptiveConcurrencyLimiter limiter = concurrencyLimiters.inbound();
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire(priority).orElse(null);
+        if (permit == null) {
+            concurrencyLimiters.recordShed(limiter, priority);
+            reject(response);
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted())
+                permit.onIgnore();
+            else if (response.getStatus() == HttpStatus.SERVICE_UNAVAILABLE.value()
+                    || response.getStatus() == HttpStatus.GATEWAY_TIMEOUT.value())
+                permit.onDropped();
+            else
+                permit.onSuccess();
+        } finally {
+            permit.onIgnore();
+        }
+    }
+
+    private static Priority priorityOf(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if ("POST".equals(request.getMethod()) && PROCESS_PATH.equals(path))
+            return Priority.CRITICAL;
+        if ("GET".equals(request.getMethod()) && path.startsWith(STATUS_PATH))
+            return Priority.LOW;
+        return null;
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        ErrorResponse errorResponse = new ErrorResponse(
+                "SERVICE_OVERLOADED",
+                "El servicio está saturado, intenta nuevamente en unos segundos",
+                Collections.emptyList()
+        );
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(concurrencyLimiters.retryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+}
@@ -0,0 +1,76 @@
+package com.msvcbilling.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Limitadores globales: "inbound" para las peticiones HTTP de pagos y "gateway" para las llamadas salientes
+ * a Mercado Pago. Exporta limite, peticiones en vuelo y descartes por prioridad.
+ */
+@Component
+public class ConcurrencyLimiters {
+
+    private final AdaptiveConcurrencyLimiter inbound;
+    private final AdaptiveConcurrencyLimiter gateway;
+    private final Map<String, Map<Priority, Counter>> shedCounters;
+    private final int retryAfterSeconds;
+
+    public ConcurrencyLimiters(
+            MeterRegistry meterRegistry,
+            @Value("${billing.concurrency.initial-limit:50}") int initialLimit,
+            @Value("${billing.concurrency.min-limit:10}") int minLimit,
+            @Value("${billing.concurrency.max-limit:500}") int maxLimit,
+            @Value("${billing.concurrency.tolerance:1.5}") double tolerance,
+            @Value("${billing.concurrency.smoothing:0.2}") double smoothing,
+            @Value("${billing.concurrency.low-priority-share:0.5}") double lowPriorityShare,
+            @Value("${billing.concurrency.retry-after-seconds:1}") int retryAfterSeconds) {
+        this.inbound = new AdaptiveConcurrencyLimiter("inbound", initialLimit, minLimit, maxLimit,
+                tolerance, smoothing, lowPriorityShare);
+        this.gateway = new AdaptiveConcurrencyLimiter("gateway", initialLimit, minLimit, maxLimit,
+                tolerance, smoothing, lowPriorityShare);
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.shedCounters = Map.of(
+                inbound.getName(), register(meterRegistry, inbound),
+                gateway.getName(), register(meterRegistry, gateway));
+    }
+
+    public AdaptiveConcurrencyLimiter inbound() {
+        return inbound;
+    }
+
+    public AdaptiveConcurrencyLimiter gateway() {
+        return gateway;
+    }
+
+    public int retryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public void recordShed(AdaptiveConcurrencyLimiter limiter, Priority priority) {
+        shedCounters.get(limiter.getName()).get(priority).increment();
+    }
+
+    private static Map<Priority, Counter> register(MeterRegistry registry, AdaptiveConcurrencyLimiter limiter) {
+        Gauge.builder("billing.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .tag("limiter", limiter.getName())
+                .register(registry);
+        Gauge.builder("billing.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInflight)
+                .tag("limiter", limiter.getName())
+                .register(registry);
+
+        Map<Priority, Counter> counters = new EnumMap<>(Priority.class);
+        for (Priority priority : Priority.values()) {
+            counters.put(priority, Counter.builder("billing.concurrency.shed")
+                    .tag("limiter", limiter.getName())
+                    .tag("priority", priority.name().toLowerCase())
+                    .register(registry));
+        }
+        return counters;
+    }
+}
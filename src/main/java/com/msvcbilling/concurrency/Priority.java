@@ -0,0 +1,8 @@
+package com.msvcbilling.concurrency;
+
+public enum Priority {
+    // Checkout: puede usar todo el limite
+    CRITICAL,
+    // Lecturas de estado: solo una fraccion del limite, se descartan primero
+    LOW
+}
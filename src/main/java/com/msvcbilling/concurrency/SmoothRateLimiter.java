@@ -0,0 +1,30 @@
+package com.msvcbilling.concurrency;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Limitador de tasa por espaciado uniforme: cada permiso se agenda intervalNanos despues del anterior y el
+ * llamador espera su turno. Pensado para hilos virtuales, donde esperar no retiene un hilo de plataforma.
+ */
+public class SmoothRateLimiter {
+
+    private final long intervalNanos;
+    private final AtomicLong nextSlot = new AtomicLong(System.nanoTime());
+
+    public SmoothRateLimiter(double permitsPerSecond) {
+        this.intervalNanos = (long) (1_000_000_000L / permitsPerSecond);
+    }
+
+    public void acquire() {
+        long now = System.nanoTime();
+        long slot = Math.max(nextSlot.getAndUpdate(previous -> Math.max(previous, now) + intervalNanos), now);
+        long wait = slot - now;
+        while (wait > 0) {
+            LockSupport.parkNanos(wait);
+            if (Thread.currentThread().isInterrupted())
+                return;
+            wait = slot - System.nanoTime();
+        }
+    }
+}
@@ -12,12 +12,17 @@ public class ConfigMercadoPago {
     @Value("${mercadopago.access-token}")
     private String accessToken;
 
+    // Con hilos virtuales el limite de concurrencia hacia Mercado Pago lo pone el pool HTTP del SDK
+    @Value("${mercadopago.max-connections:200}")
+    private int maxConnections;
+
     @PostConstruct
     public void init() {
-        log.info("Access Token de mercado pago {}", accessToken);
+        log.info("Credenciales globales de Mercado Pago configuradas (tenant default)");
         MercadoPagoConfig.setAccessToken(accessToken);
         MercadoPagoConfig.setConnectionRequestTimeout(3000);
         MercadoPagoConfig.setSocketTimeout(5000);
+        MercadoPagoConfig.setMaxConnections(maxConnections);
     }
 
 }
\ No newline at end of file
@@ -5,8 +5,10 @@ import com.mercadopago.client.payment.PaymentClient;
 import com.mercadopago.client.paymentmethod.PaymentMethodClient;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
 
 @Configuration
+@DependsOn("configMercadoPago")
 public class MercadoPagoClientConfig {
 
     @Bean
@@ -26,6 +26,8 @@ public class SecurityConfig {
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         return http
                 .authorizeHttpRequests(authorize -> authorize
+                        // Los volcados JFR escriben en disco: solo administradores
+                        .requestMatchers("/actuator/jfr/**").hasAuthority("ROLE_ADMIN")
                         .requestMatchers(
                                 "/actuator/**",
                                 "/swagger-ui/**",
@@ -0,0 +1,42 @@
+package com.msvcbilling.config.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Contexto de enrutamiento por hilo. Permite forzar el primario para lecturas que no toleran el lag de la replica.
+ */
+public final class DataSourceRouting {
+
+    public enum Target {
+        PRIMARY, REPLICA
+    }
+
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+
+    private DataSourceRouting() {
+    }
+
+    public static boolean isPrimaryForced() {
+        return Boolean.TRUE.equals(FORCE_PRIMARY.get());
+    }
+
+    public static <T> T onPrimary(Supplier<T> action) {
+        Boolean previous = FORCE_PRIMARY.get();
+        FORCE_PRIMARY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null)
+                FORCE_PRIMARY.remove();
+            else
+                FORCE_PRIMARY.set(previous);
+        }
+    }
+
+    public static void onPrimary(Runnable action) {
+        onPrimary(() -> {
+            action.run();
+            return null;
+        });
+    }
+}
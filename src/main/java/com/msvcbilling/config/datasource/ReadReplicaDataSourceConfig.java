@@ -0,0 +1,71 @@
+package com.msvcbilling.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Solo se activa cuando hay una replica configurada (billing.datasource.replica.url).
+ * Las transacciones readOnly van a la replica y el resto al primario. Cada pool publica sus
+ * propias metricas de Hikari con su poolName.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "billing.datasource.replica", name = "url")
+public class ReadReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("billing-primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("billing.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(
+            DataSourceProperties properties,
+            @Value("${billing.datasource.replica.url}") String url,
+            @Value("${billing.datasource.replica.username:${spring.datasource.username:}}") String username,
+            @Value("${billing.datasource.replica.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("billing-replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    // El proxy lazy retrasa la obtencion de la conexion hasta la primera sentencia,
+    // cuando el flag readOnly de la transaccion ya esta disponible para el ruteo
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryDataSource") DataSource primaryDataSource,
+            @Qualifier("replicaDataSource") DataSource replicaDataSource) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource();
+        routing.setTargetDataSources(Map.of(
+                DataSourceRouting.Target.PRIMARY, primaryDataSource,
+                DataSourceRouting.Target.REPLICA, replicaDataSource));
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
@@ -0,0 +1,16 @@
+package com.msvcbilling.config.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (DataSourceRouting.isPrimaryForced())
+            return DataSourceRouting.Target.PRIMARY;
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                ? DataSourceRouting.Target.REPLICA
+                : DataSourceRouting.Target.PRIMARY;
+    }
+}
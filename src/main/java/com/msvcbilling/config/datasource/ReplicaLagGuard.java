@@ -0,0 +1,52 @@
+package com.msvcbilling.config.datasource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Recuerda las referencias escritas recientemente para leerlas desde el primario mientras
+ * la replica pueda no tenerlas todavia.
+ */
+@Component
+public class ReplicaLagGuard {
+
+    private static final int CLEANUP_THRESHOLD = 10_000;
+
+    private final Map<String, Long> recentWrites = new ConcurrentHashMap<>();
+    private final long windowNanos;
+
+    public ReplicaLagGuard(@Value("${billing.datasource.replica.lag-window:PT5S}") Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    public void recordWrite(String key) {
+        if (key == null)
+            return;
+        long now = System.nanoTime();
+        recentWrites.put(key, now + windowNanos);
+        if (recentWrites.size() > CLEANUP_THRESHOLD)
+            recentWrites.values().removeIf(expiresAt -> expiresAt - now < 0);
+    }
+
+    public boolean requiresPrimary(String key) {
+        if (key == null)
+            return false;
+        Long expiresAt = recentWrites.get(key);
+        if (expiresAt == null)
+            return false;
+        if (expiresAt - System.nanoTime() < 0) {
+            recentWrites.remove(key, expiresAt);
+            return false;
+        }
+        return true;
+    }
+
+    public <T> T read(String key, Supplier<T> action) {
+        return requiresPrimary(key) ? DataSourceRouting.onPrimary(action) : action.get();
+    }
+}
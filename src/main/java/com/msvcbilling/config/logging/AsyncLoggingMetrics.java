@@ -0,0 +1,18 @@
+package com.msvcbilling.config.logging;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+@Component
+public class AsyncLoggingMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("billing.logging.events.dropped", MeteredAsyncAppender.class,
+                        c -> MeteredAsyncAppender.droppedEvents())
+                .description("Eventos de log descartados por la cola asincrona")
+                .register(registry);
+    }
+}
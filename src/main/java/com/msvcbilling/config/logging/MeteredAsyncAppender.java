@@ -0,0 +1,27 @@
+package com.msvcbilling.config.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * AsyncAppender que cuenta los eventos descartados cuando la cola supera el umbral de descarte.
+ * Logback instancia el appender fuera del contexto de Spring, por eso el contador es estatico.
+ */
+public class MeteredAsyncAppender extends AsyncAppender {
+
+    private static final LongAdder DROPPED = new LongAdder();
+
+    public static long droppedEvents() {
+        return DROPPED.sum();
+    }
+
+    @Override
+    protected boolean isDiscardable(ILoggingEvent event) {
+        boolean discardable = super.isDiscardable(event);
+        if (discardable)
+            DROPPED.increment();
+        return discardable;
+    }
+}
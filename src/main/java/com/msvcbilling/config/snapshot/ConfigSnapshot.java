@@ -0,0 +1,11 @@
+package com.msvcbilling.config.snapshot;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Configuracion resuelta desde el config server. version es un hash del contenido: dos snapshots con la misma
+ * version tienen exactamente las mismas propiedades.
+ */
+public record ConfigSnapshot(String version, Instant createdAt, Map<String, String> properties) {
+}
@@ -0,0 +1,69 @@
+package com.msvcbilling.config.snapshot;
+
+import org.apache.commons.logging.Log;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.logging.DeferredLogFactory;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.PropertySource;
+
+import java.util.HashMap;
+import java.util.Optional;
+
+/**
+ * Agrega el snapshot local justo por encima de los application*.yml, donde iria la fuente del config server:
+ * si el config server responde sus valores tienen prioridad, y si no responde la instancia arranca con la
+ * ultima configuracion conocida en lugar de los valores locales. Variables de entorno y propiedades del
+ * sistema siguen teniendo precedencia sobre el snapshot.
+ */
+public class ConfigSnapshotEnvironmentPostProcessor implements EnvironmentPostProcessor, Ordered {
+
+    public static final String PROPERTY_SOURCE_NAME = "billingConfigSnapshot";
+
+    // Nombre que ConfigDataEnvironment da a las fuentes de los archivos application*.yml
+    private static final String CONFIG_DATA_PREFIX = "Config resource ";
+
+    private final Log log;
+
+    // Todavia no hay logging configurado: DeferredLog reemite los mensajes cuando el sistema de logging arranca
+    public ConfigSnapshotEnvironmentPostProcessor(DeferredLogFactory logFactory) {
+        this.log = logFactory.getLog(ConfigSnapshotEnvironmentPostProcessor.class);
+    }
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        if (environment.getPropertySources().contains(PROPERTY_SOURCE_NAME))
+            return;
+
+        Optional<ConfigSnapshotStore> store = ConfigSnapshotStore.from(environment);
+        if (store.isEmpty())
+            return;
+        try {
+            store.get().read().ifPresent(snapshot -> add(environment.getPropertySources(),
+                    new MapPropertySource(PROPERTY_SOURCE_NAME, new HashMap<>(snapshot.properties()))));
+        } catch (
+                Exception e) {
+            // Un snapshot ilegible equivale a no tener snapshot
+            log.warn("No se pudo leer el snapshot de configuración: " + e.getMessage());
+        }
+    }
+
+    private static void add(MutablePropertySources sources, MapPropertySource snapshot) {
+        Optional<String> configData = sources.stream()
+                .map(PropertySource::getName)
+                .filter(name -> name.startsWith(CONFIG_DATA_PREFIX))
+                .findFirst();
+        if (configData.isPresent())
+            sources.addBefore(configData.get(), snapshot);
+        else
+            sources.addLast(snapshot);
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,125 @@
+package com.msvcbilling.config.snapshot;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cloud.context.refresh.ContextRefresher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Reconciliacion en segundo plano con el config server. Si la instancia arranco solo con el snapshot,
+ * reintenta la carga remota con ContextRefresher (rebindea @ConfigurationProperties y niveles de log;
+ * las propiedades de infraestructura quedan para el siguiente reinicio). Cada confirmacion de la
+ * configuracion remota se persiste como snapshot con la fecha de esa confirmacion.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ConfigSnapshotService {
+
+    // Cambian recursos ya construidos (pools, registro, servidor): solo aplican al reiniciar
+    private static final List<String> RESTART_PREFIXES = List.of(
+            "spring.datasource.", "spring.jpa.", "spring.kafka.", "eureka.", "server.", "mercadopago.");
+
+    private final ConfigurableEnvironment environment;
+    private final ObjectProvider<ContextRefresher> contextRefresher;
+
+    private volatile String lastVersion;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        boolean fromSnapshot = environment.getPropertySources()
+                .contains(ConfigSnapshotEnvironmentPostProcessor.PROPERTY_SOURCE_NAME);
+        log.info("Configuración cargada desde {}", hasRemoteConfig() ? "el config server"
+                : fromSnapshot ? "el snapshot local" : "valores locales");
+        reconcile();
+    }
+
+    @Scheduled(initialDelayString = "${billing.config-snapshot.refresh-interval:PT5M}",
+            fixedDelayString = "${billing.config-snapshot.refresh-interval:PT5M}")
+    public void reconcile() {
+        Optional<ConfigSnapshotStore> store = ConfigSnapshotStore.from(environment);
+        if (store.isEmpty())
+            return;
+
+        try {
+            if (!hasRemoteConfig())
+                refreshFromConfigServer();
+
+            Map<String, String> remote = remoteProperties();
+            if (remote.isEmpty())
+                return;
+
+            // Se reescribe aunque la version no cambie: createdAt marca la ultima confirmacion del config server
+            // y read() descarta snapshots mas antiguos que max-age
+            ConfigSnapshot snapshot = ConfigSnapshotStore.snapshotOf(remote);
+            store.get().write(snapshot);
+            if (!snapshot.version().equals(lastVersion))
+                log.info("Snapshot de configuración guardado con la versión {}", snapshot.version());
+            lastVersion = snapshot.version();
+        } catch (
+                Exception e) {
+            log.warn("No se pudo reconciliar la configuración con el config server: {}", e.getMessage());
+        }
+    }
+
+    private void refreshFromConfigServer() {
+        ContextRefresher refresher = contextRefresher.getIfAvailable();
+        if (refresher == null)
+            return;
+
+        Set<String> changed = refresher.refresh();
+        if (!hasRemoteConfig())
+            return;
+
+        List<String> restartRequired = changed.stream()
+                .filter(name -> RESTART_PREFIXES.stream().anyMatch(name::startsWith))
+                .sorted()
+                .toList();
+        log.info("Configuración remota aplicada ({} cambios)", changed.size());
+        if (!restartRequired.isEmpty())
+            log.warn("Propiedades que requieren reinicio para aplicarse: {}", restartRequired);
+    }
+
+    private boolean hasRemoteConfig() {
+        for (PropertySource<?> source : environment.getPropertySources()) {
+            if (isRemote(source))
+                return true;
+        }
+        return false;
+    }
+
+    private Map<String, String> remoteProperties() {
+        Map<String, String> properties = new HashMap<>();
+        for (PropertySource<?> source : environment.getPropertySources()) {
+            if (!isRemote(source) || !(source instanceof EnumerablePropertySource<?> enumerable))
+                continue;
+            for (String name : enumerable.getPropertyNames()) {
+                Object value = enumerable.getProperty(name);
+                // La primera fuente gana, igual que en el Environment
+                if (value != null && !name.startsWith("config.client."))
+                    properties.putIfAbsent(name, value.toString());
+            }
+        }
+        return properties;
+    }
+
+    // bootstrapProperties-* (modo bootstrap) o configserver:* (spring.config.import)
+    private static boolean isRemote(PropertySource<?> source) {
+        String name = source.getName();
+        return (name.startsWith("bootstrapProperties") && !name.endsWith("configClient"))
+                || name.startsWith("configserver:");
+    }
+}
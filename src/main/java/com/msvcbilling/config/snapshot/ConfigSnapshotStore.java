@@ -0,0 +1,149 @@
+package com.msvcbilling.config.snapshot;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.core.env.Environment;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Archivo local con el ultimo snapshot de configuracion, cifrado completo con AES-GCM: ademas de ocultar
+ * secretos como mercadopago.access-token, la etiqueta GCM verifica que el archivo no fue alterado.
+ * La clave (32 bytes en base64) llega por variable de entorno, nunca desde el propio config server.
+ * Se usa antes de que exista el contexto de Spring, por eso no es un bean.
+ */
+public final class ConfigSnapshotStore {
+
+    private static final String CIPHER = "AES/GCM/NoPadding";
+    private static final int IV_BYTES = 12;
+    private static final int TAG_BITS = 128;
+    private static final int FORMAT = 1;
+
+    private static final ObjectMapper MAPPER = JsonMapper.builder().addModule(new JavaTimeModule()).build();
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final Path path;
+    private final SecretKeySpec key;
+    private final Duration maxAge;
+
+    private ConfigSnapshotStore(Path path, SecretKeySpec key, Duration maxAge) {
+        this.path = path;
+        this.key = key;
+        this.maxAge = maxAge;
+    }
+
+    // Vacio si no hay clave configurada: sin clave no se lee ni se escribe ningun snapshot
+    public static Optional<ConfigSnapshotStore> from(Environment environment) {
+        String encodedKey = environment.getProperty("billing.config-snapshot.key");
+        if (encodedKey == null || encodedKey.isBlank()
+                || !environment.getProperty("billing.config-snapshot.enabled", Boolean.class, true))
+            return Optional.empty();
+
+        Path path = Path.of(environment.getProperty("billing.config-snapshot.path",
+                System.getProperty("java.io.tmpdir") + "/msvc-billing/config-snapshot.json"));
+        Duration maxAge = environment.getProperty("billing.config-snapshot.max-age", Duration.class, Duration.ofDays(7));
+        return Optional.of(new ConfigSnapshotStore(path, new SecretKeySpec(Base64.getDecoder().decode(encodedKey), "AES"), maxAge));
+    }
+
+    public static ConfigSnapshot snapshotOf(Map<String, String> properties) {
+        Map<String, String> sorted = new TreeMap<>(properties);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            sorted.forEach((name, value) -> {
+                digest.update(name.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                digest.update(value.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            });
+            return new ConfigSnapshot(HexFormat.of().formatHex(digest.digest(), 0, 16), Instant.now(), sorted);
+        } catch (
+                GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    // Vacio si no existe, esta vencido o no supera la verificacion GCM
+    public Optional<ConfigSnapshot> read() throws IOException {
+        if (!Files.exists(path))
+            return Optional.empty();
+
+        Envelope envelope = MAPPER.readValue(path.toFile(), Envelope.class);
+        if (envelope.format() != FORMAT)
+            return Optional.empty();
+        try {
+            Cipher cipher = Cipher.getInstance(CIPHER);
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, Base64.getDecoder().decode(envelope.iv())));
+            cipher.updateAAD(aad(envelope));
+            byte[] plain = cipher.doFinal(Base64.getDecoder().decode(envelope.payload()));
+            ConfigSnapshot snapshot = MAPPER.readValue(plain, ConfigSnapshot.class);
+            if (!snapshot.version().equals(envelope.version())
+                    || snapshot.createdAt().plus(maxAge).isBefore(Instant.now()))
+                return Optional.empty();
+            return Optional.of(snapshot);
+        } catch (
+                GeneralSecurityException e) {
+            return Optional.empty();
+        }
+    }
+
+    public void write(ConfigSnapshot snapshot) throws IOException {
+        byte[] iv = new byte[IV_BYTES];
+        RANDOM.nextBytes(iv);
+        Envelope envelope = new Envelope(FORMAT, snapshot.version(), snapshot.createdAt(),
+                Base64.getEncoder().encodeToString(iv), null);
+        try {
+            Cipher cipher = Cipher.getInstance(CIPHER);
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, iv));
+            cipher.updateAAD(aad(envelope));
+            byte[] encrypted = cipher.doFinal(MAPPER.writeValueAsBytes(snapshot));
+            envelope = new Envelope(FORMAT, snapshot.version(), snapshot.createdAt(), envelope.iv(),
+                    Base64.getEncoder().encodeToString(encrypted));
+        } catch (
+                GeneralSecurityException e) {
+            throw new IOException("No se pudo cifrar el snapshot de configuración", e);
+        }
+
+        // Escritura atomica: un arranque concurrente nunca lee un archivo a medio escribir
+        Files.createDirectories(path.getParent());
+        Path temp = Files.createTempFile(path.getParent(), "config-snapshot", ".tmp");
+        try {
+            Files.setPosixFilePermissions(temp, PosixFilePermissions.fromString("rw-------"));
+        } catch (
+                UnsupportedOperationException ignored) {
+            // Sistema de archivos sin permisos POSIX
+        }
+        MAPPER.writeValue(temp.toFile(), envelope);
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static byte[] aad(Envelope envelope) {
+        return (envelope.format() + ":" + envelope.version() + ":" + envelope.createdAt())
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    record Envelope(int format, String version, Instant createdAt, String iv, String payload) {
+    }
+}
@@ -0,0 +1,30 @@
+package com.msvcbilling.controllers;
+
+import com.msvcbilling.dtos.PayerSearchRequest;
+import com.msvcbilling.dtos.PaymentResponse;
+import com.msvcbilling.services.PayerService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/billing/payers")
+@RequiredArgsConstructor
+@PreAuthorize("hasAuthority('ROLE_ADMIN')")
+@Tag(name = "Payers", description = "Búsqueda de pagos por pagador")
+public class PayerController {
+    private final PayerService payerService;
+
+    @Operation(summary = "Listar los pagos de un pagador por email o documento")
+    @PostMapping("/payments/search")
+    public ResponseEntity<Page<PaymentResponse>> findPayments(@RequestBody PayerSearchRequest request,
+                                                              Pageable pageable) {
+        return ResponseEntity.ok(payerService.findPayments(
+                request.email(), request.identificationType(), request.identificationNumber(), pageable));
+    }
+}
@@ -1,19 +1,35 @@
 package com.msvcbilling.controllers;
 
+import com.msvcbilling.cache.EncodedPaymentResponse;
+import com.msvcbilling.cache.PaymentResponseCache;
 import com.msvcbilling.dtos.DirectPaymentRequest;
 import com.msvcbilling.dtos.PaymentResponse;
+import com.msvcbilling.screening.ClientIpResolver;
+import com.msvcbilling.screening.PaymentScreening;
 import com.msvcbilling.services.PaymentService;
+import com.msvcbilling.services.PaymentStatusStreamService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.health.HealthComponent;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/billing/payments")
@@ -22,65 +38,68 @@ import java.util.Map;
 @Tag(name = "Payments", description = "API para pagos directos con Mercado Pago")
 public class PaymentController {
     private final PaymentService paymentService;
+    private final PaymentStatusStreamService paymentStatusStreamService;
+    private final HealthEndpoint healthEndpoint;
+    private final PaymentScreening paymentScreening;
+    private final ClientIpResolver clientIpResolver;
+    private final PaymentResponseCache paymentResponseCache;
 
 
     @Operation(summary = "Procesar pago directo")
     @PostMapping("/process")
     public ResponseEntity<PaymentResponse> processPayment(
-            @Valid @RequestBody DirectPaymentRequest request) {
-        try {
-            log.info("Procesando pago directo para referencia: {}", request.externalReference());
-            PaymentResponse response = paymentService.processDirectPayment(request);
-            log.info("✅ Pago procesado exitosamente. Estado: {}", response.status());
-            return ResponseEntity.ok(response);
-        } catch (
-                Exception e) {
-            log.error("❌ Error procesando pago para referencia: {}", request.externalReference(), e);
-            throw new RuntimeException("Error al procesar pago: " + e.getMessage());
-
-        }
+            @Valid @RequestBody DirectPaymentRequest request, HttpServletRequest httpRequest) throws Exception {
+        log.debug("Procesando pago directo para referencia: {}", request.externalReference());
+        paymentScreening.screen(request, clientIpResolver.resolve(httpRequest));
+        PaymentResponse response = paymentService.processDirectPayment(request);
+        return ResponseEntity.ok(response);
     }
 
+    // Pagos terminales: se sirven los bytes ya codificados (ETag fuerte, gzip si el cliente lo acepta)
     @Operation(summary = "Consultar estado de pago")
+    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = PaymentResponse.class)))
     @GetMapping("/status/{externalReference}")
-    public ResponseEntity<PaymentResponse> getPaymentStatus(
-            @PathVariable String externalReference) {
-        try {
-            log.info("Consultando estado de pago para referencia: {}", externalReference);
+    public ResponseEntity<?> getPaymentStatus(
+            @PathVariable String externalReference,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) throws Exception {
+        log.debug("Consultando estado de pago para referencia: {}", externalReference);
+        Optional<EncodedPaymentResponse> cached = paymentResponseCache.get(externalReference);
+        if (cached.isEmpty()) {
             PaymentResponse response = paymentService.getPaymentStatus(externalReference);
-            return ResponseEntity.ok(response);
-        } catch (
-                Exception e) {
-            log.error("Error consultando estado de pago para referencia: {}", externalReference, e);
-            throw new RuntimeException("Error al consultar estado de pago: " + e.getMessage());
+            cached = paymentResponseCache.put(response);
+            if (cached.isEmpty())
+                return ResponseEntity.ok(response);
         }
+        return PaymentResponseCache.toResponse(cached.get(), ifNoneMatch, acceptEncoding);
+    }
+
+    @Operation(summary = "Suscribirse a los cambios de estado de pago (SSE)")
+    @GetMapping(value = "/status/{externalReference}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamPaymentStatus(@PathVariable String externalReference) throws Exception {
+        return paymentStatusStreamService.subscribe(externalReference);
     }
 
     @Operation(summary = "Obtener métodos de pago disponibles")
     @GetMapping("/methods")
-    public ResponseEntity<List<String>> getPaymentMethods() {
-        try {
-            log.info("Consultando métodos de pago disponibles");
-            List<String> methods = paymentService.getPaymentMethods();
-            return ResponseEntity.ok(methods);
-        } catch (
-                Exception e) {
-            log.error("Error consultando métodos de pago", e);
-            throw new RuntimeException("Error al consultar métodos de pago: " + e.getMessage());
-        }
+    public ResponseEntity<List<String>> getPaymentMethods() throws Exception {
+        log.debug("Consultando métodos de pago disponibles");
+        List<String> methods = paymentService.getPaymentMethods();
+        return ResponseEntity.ok(methods);
     }
 
 
 
+    // Compatibilidad con clientes del endpoint anterior: refleja el grupo readiness de actuator.
+    // Es anonimo, asi que solo expone el estado y no los detalles de los indicadores
     @Operation(summary = "Verificar estado del servicio")
     @GetMapping("/health")
-    public ResponseEntity<Map<String, Object>> health() {
-        Map<String, Object> health = new HashMap<>();
-        health.put("status", "UP");
-        health.put("service", "msvc-billing-checkout-api");
-        health.put("mode", "direct_payments");
-        health.put("timestamp", System.currentTimeMillis());
-        return ResponseEntity.ok(health);
+    public ResponseEntity<Map<String, String>> health() {
+        HealthComponent readiness = healthEndpoint.healthForPath("readiness");
+        if (readiness == null)
+            readiness = healthEndpoint.health();
+        HttpStatus status = Status.UP.equals(readiness.getStatus()) ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status).body(Map.of("status", readiness.getStatus().getCode()));
     }
 
 
@@ -0,0 +1,28 @@
+package com.msvcbilling.controllers;
+
+import com.msvcbilling.dtos.ReconciliationRequest;
+import com.msvcbilling.dtos.ReconciliationSummary;
+import com.msvcbilling.services.ReconciliationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/billing/reconciliations")
+@RequiredArgsConstructor
+@Tag(name = "Reconciliations", description = "Conciliación contra reportes de liquidación de Mercado Pago")
+public class ReconciliationController {
+    private final ReconciliationService reconciliationService;
+
+    @Operation(summary = "Conciliar un reporte de liquidación")
+    @PostMapping
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<ReconciliationSummary> reconcile(@Valid @RequestBody ReconciliationRequest request)
+            throws Exception {
+        return ResponseEntity.ok(reconciliationService.reconcile(request));
+    }
+}
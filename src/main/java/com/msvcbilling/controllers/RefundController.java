@@ -0,0 +1,62 @@
+package com.msvcbilling.controllers;
+
+import com.msvcbilling.dtos.BulkRefundRequest;
+import com.msvcbilling.dtos.RefundJobResponse;
+import com.msvcbilling.dtos.RefundRequest;
+import com.msvcbilling.dtos.RefundResponse;
+import com.msvcbilling.entities.RefundEntity;
+import com.msvcbilling.services.RefundService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/billing/refunds")
+@RequiredArgsConstructor
+@Slf4j
+@PreAuthorize("hasAuthority('ROLE_ADMIN')")
+@Tag(name = "Refunds", description = "Devoluciones y cancelaciones de pagos en Mercado Pago")
+public class RefundController {
+    private final RefundService refundService;
+
+    // 502 cuando Mercado Pago no pudo procesar la operacion; reenviar la misma solicitud es seguro
+    @Operation(summary = "Devolver o cancelar un pago")
+    @PostMapping
+    public ResponseEntity<RefundResponse> refund(@Valid @RequestBody RefundRequest request) throws Exception {
+        log.debug("Procesando {} para referencia: {}", request.operation(), request.externalReference());
+        RefundResponse response = refundService.refund(request);
+        HttpStatus status = RefundEntity.FAILED.equals(response.status()) ? HttpStatus.BAD_GATEWAY : HttpStatus.OK;
+        return ResponseEntity.status(status).body(response);
+    }
+
+    @Operation(summary = "Devolver o cancelar pagos en lote")
+    @PostMapping("/bulk")
+    public ResponseEntity<RefundJobResponse> bulkRefund(@Valid @RequestBody BulkRefundRequest request) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(refundService.submitBulk(request));
+    }
+
+    @Operation(summary = "Consultar el progreso de un proceso en lote")
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<RefundJobResponse> getJob(@PathVariable UUID jobId) {
+        return ResponseEntity.ok(refundService.getJob(jobId));
+    }
+
+    @Operation(summary = "Listar las operaciones de un proceso en lote por estado")
+    @GetMapping("/jobs/{jobId}/items")
+    public ResponseEntity<Page<RefundResponse>> getJobItems(
+            @PathVariable UUID jobId,
+            @RequestParam(defaultValue = RefundEntity.FAILED) String status,
+            Pageable pageable) {
+        return ResponseEntity.ok(refundService.getJobItems(jobId, status, pageable));
+    }
+}
@@ -0,0 +1,23 @@
+package com.msvcbilling.dtos;
+
+import com.msvcbilling.entities.RefundOperation;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BulkRefundRequest(
+        @NotBlank(message = "La clave de idempotencia es requerida")
+        String idempotencyKey,
+
+        @NotNull(message = "La operación es requerida")
+        RefundOperation operation,
+
+        @NotEmpty(message = "Debe indicar al menos una referencia externa")
+        @Size(max = 10000, message = "Máximo 10000 referencias por lote")
+        List<@NotBlank String> externalReferences,
+
+        String reason
+) {}
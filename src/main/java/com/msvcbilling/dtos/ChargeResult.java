@@ -0,0 +1,11 @@
+package com.msvcbilling.dtos;
+
+import com.msvcbilling.exceptions.ErrorResponse;
+
+public record ChargeResult(
+        String externalReference,
+        String tenantId,
+        String outcome,
+        PaymentResponse payment,
+        ErrorResponse error
+) {}
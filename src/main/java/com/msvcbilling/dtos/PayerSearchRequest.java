@@ -0,0 +1,8 @@
+package com.msvcbilling.dtos;
+
+// En el cuerpo y no en la URL: los datos del pagador no deben quedar en logs de acceso
+public record PayerSearchRequest(
+        String email,
+        String identificationType,
+        String identificationNumber
+) {}
@@ -0,0 +1,13 @@
+package com.msvcbilling.dtos;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record ReconciliationRequest(
+        @NotBlank(message = "El archivo de reporte es requerido")
+        String reportFile,
+
+        @NotBlank(message = "El archivo de salida es requerido")
+        String outputFile,
+
+        boolean checkMissingInReport
+) {}
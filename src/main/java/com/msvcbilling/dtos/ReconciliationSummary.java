@@ -0,0 +1,14 @@
+package com.msvcbilling.dtos;
+
+public record ReconciliationSummary(
+        String reportFile,
+        String outputFile,
+        long rowsRead,
+        long rowsMatched,
+        long missingLocal,
+        long amountMismatches,
+        long statusMismatches,
+        long missingInReport,
+        long malformedRows,
+        long durationMillis
+) {}
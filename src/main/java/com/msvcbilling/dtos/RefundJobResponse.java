@@ -0,0 +1,16 @@
+package com.msvcbilling.dtos;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+public record RefundJobResponse(
+        UUID jobId,
+        String operation,
+        String status,
+        int total,
+        int processed,
+        int succeeded,
+        int failed,
+        OffsetDateTime dateCreated,
+        OffsetDateTime dateFinished
+) {}
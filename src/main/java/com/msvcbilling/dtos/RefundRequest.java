@@ -0,0 +1,24 @@
+package com.msvcbilling.dtos;
+
+import com.msvcbilling.entities.RefundOperation;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+
+public record RefundRequest(
+        @NotBlank(message = "La referencia externa es requerida")
+        String externalReference,
+
+        @NotNull(message = "La operación es requerida")
+        RefundOperation operation,
+
+        // Solo para devoluciones parciales
+        @DecimalMin(value = "0.01", message = "El monto debe ser mayor a 0")
+        BigDecimal amount,
+
+        String reason,
+
+        String idempotencyKey
+) {}
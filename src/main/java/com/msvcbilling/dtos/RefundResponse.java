@@ -0,0 +1,18 @@
+package com.msvcbilling.dtos;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+public record RefundResponse(
+        String refundKey,
+        String externalReference,
+        Long paymentId,
+        String operation,
+        String status,
+        BigDecimal amount,
+        Long mpRefundId,
+        String errorCode,
+        String errorMessage,
+        OffsetDateTime dateCreated,
+        OffsetDateTime dateProcessed
+) {}
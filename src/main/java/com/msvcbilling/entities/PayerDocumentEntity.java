@@ -0,0 +1,43 @@
+package com.msvcbilling.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Documentos adicionales de un pagador: el mismo email puede pagar con otro documento, y la busqueda
+ * por blind index debe encontrar esos pagos. El documento del primer pago sigue en payers.document_index.
+ */
+@Entity
+@Table(name = "payer_documents",
+        uniqueConstraints = @UniqueConstraint(name = "uk_payer_documents_tenant_document_payer",
+                columnNames = {"tenant_id", "document_index", "payer_id"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayerDocumentEntity {
+    @Id
+    private UUID id;
+
+    @Column(name = "tenant_id", nullable = false)
+    private String tenantId;
+
+    @Column(name = "payer_id", nullable = false)
+    private UUID payerId;
+
+    @Column(name = "document_index", nullable = false)
+    private byte[] documentIndex;
+
+    @Column(name = "identification_type", length = 16)
+    private String identificationType;
+
+    @Column(name = "identification_number")
+    private byte[] identificationNumber;
+
+    @Column(name = "date_created")
+    private OffsetDateTime dateCreated;
+}
@@ -0,0 +1,52 @@
+package com.msvcbilling.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Datos del pagador compartidos por todos sus pagos. Los campos personales se guardan cifrados (PiiCipher)
+ * y las busquedas por email o documento usan blind indexes; los pagos solo guardan payer_id.
+ */
+@Entity
+@Table(name = "payers",
+        uniqueConstraints = @UniqueConstraint(name = "uk_payers_tenant_email", columnNames = {"tenant_id", "email_index"}),
+        indexes = @Index(name = "idx_payers_tenant_document", columnList = "tenant_id, document_index"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayerEntity {
+    @Id
+    private UUID id;
+
+    @Column(name = "tenant_id", nullable = false)
+    private String tenantId;
+
+    @Column(name = "email_index", nullable = false)
+    private byte[] emailIndex;
+
+    @Column(name = "document_index")
+    private byte[] documentIndex;
+
+    @Column(name = "email")
+    private byte[] email;
+
+    @Column(name = "first_name")
+    private byte[] firstName;
+
+    @Column(name = "last_name")
+    private byte[] lastName;
+
+    @Column(name = "identification_type", length = 16)
+    private String identificationType;
+
+    @Column(name = "identification_number")
+    private byte[] identificationNumber;
+
+    @Column(name = "date_created")
+    private OffsetDateTime dateCreated;
+}
@@ -4,13 +4,21 @@ import com.msvcbilling.config.audit.Audit;
 import jakarta.persistence.*;
 import jakarta.persistence.Id;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "payments")
+@DynamicUpdate
+@Table(name = "payments", indexes = @Index(name = "idx_payments_payer_id", columnList = "payer_id"))
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "payments")
+@NaturalIdCache(region = "payments-natural-id")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -20,15 +28,16 @@ public class PaymentEntity {
     @Id
     private UUID id;
 
+    @NaturalId
     @Column(name = "external_reference", unique = true)
     private String externalReference;
 
+    @Column(name = "tenant_id")
+    private String tenantId;
+
     @Column(name = "payment_id", unique = true)
     private Long paymentId;
 
-    @Column(name = "token")
-    private String token;
-
     @Column(name = "payment_method_id")
     private String paymentMethodId;
 
@@ -56,20 +65,9 @@ public class PaymentEntity {
     @Column(name = "status_detail")
     private String statusDetail;
 
-    @Column(name = "payer_email")
-    private String payerEmail;
-
-    @Column(name = "payer_first_name")
-    private String payerFirstName;
-
-    @Column(name = "payer_last_name")
-    private String payerLastName;
-
-    @Column(name = "payer_identification_type")
-    private String payerIdentificationType;
-
-    @Column(name = "payer_identification_number")
-    private String payerIdentificationNumber;
+    // Los datos personales viven cifrados en payers: cargar un pago no trae PII a memoria
+    @Column(name = "payer_id")
+    private UUID payerId;
 
     @Column(name = "date_created")
     private OffsetDateTime dateCreated;
@@ -77,6 +75,11 @@ public class PaymentEntity {
     @Column(name = "date_approved")
     private OffsetDateTime dateApproved;
 
+    // Nullable: un id asignado con version null se trata como entidad nueva (persist sin SELECT previo)
+    @Version
+    @Column(name = "version", columnDefinition = "bigint default 0")
+    private Long version;
+
     @Embedded
     private Audit audit;
 
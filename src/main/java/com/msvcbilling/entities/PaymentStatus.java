@@ -0,0 +1,67 @@
+package com.msvcbilling.entities;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+@Getter
+@RequiredArgsConstructor
+public enum PaymentStatus {
+    PENDING("pending", false, 0),
+    IN_PROCESS("in_process", false, 1),
+    AUTHORIZED("authorized", false, 2),
+    APPROVED("approved", true, 3),
+    REJECTED("rejected", true, 3),
+    CANCELLED("cancelled", true, 3),
+    IN_MEDIATION("in_mediation", false, 4),
+    REFUNDED("refunded", true, 5),
+    CHARGED_BACK("charged_back", true, 5);
+
+    private static final List<String> TERMINAL_VALUES = Arrays.stream(values())
+            .filter(PaymentStatus::isTerminal)
+            .map(PaymentStatus::getValue)
+            .toList();
+
+    private final String value;
+    private final boolean terminal;
+    // Orden del ciclo de vida: un pago nunca retrocede a un estado de menor rango
+    private final int rank;
+
+    public static Optional<PaymentStatus> from(String value) {
+        if (value == null)
+            return Optional.empty();
+        for (PaymentStatus status : values()) {
+            if (status.value.equals(value))
+                return Optional.of(status);
+        }
+        return Optional.empty();
+    }
+
+    public static boolean isTerminal(String value) {
+        return from(value).map(PaymentStatus::isTerminal).orElse(false);
+    }
+
+    // Desde un estado desconocido se acepta cualquiera, pero un estado conocido nunca pasa a uno desconocido
+    // (p. ej. status nulo de Mercado Pago); una mediacion resuelta a favor vuelve a approved
+    public static boolean canTransition(String from, String to) {
+        if (Objects.equals(from, to))
+            return true;
+        Optional<PaymentStatus> current = from(from);
+        Optional<PaymentStatus> next = from(to);
+        if (current.isEmpty())
+            return true;
+        if (next.isEmpty())
+            return false;
+        if (current.get() == IN_MEDIATION && next.get() == APPROVED)
+            return true;
+        return next.get().rank > current.get().rank;
+    }
+
+    public static List<String> terminalValues() {
+        return TERMINAL_VALUES;
+    }
+}
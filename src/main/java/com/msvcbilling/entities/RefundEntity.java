@@ -0,0 +1,84 @@
+package com.msvcbilling.entities;
+
+import com.msvcbilling.config.audit.Audit;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+@Entity
+@DynamicUpdate
+@Table(name = "payment_refunds",
+        uniqueConstraints = @UniqueConstraint(name = "uk_payment_refunds_tenant_refund_key",
+                columnNames = {"tenant_id", "refund_key"}),
+        indexes = {
+        @Index(name = "idx_payment_refunds_job", columnList = "job_id, status"),
+        @Index(name = "idx_payment_refunds_external_reference", columnList = "external_reference")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefundEntity {
+    public static final String SUCCEEDED = "SUCCEEDED";
+    public static final String FAILED = "FAILED";
+
+    @Id
+    private UUID id;
+
+    // Clave de idempotencia por tenant: una devolucion exitosa con la misma clave nunca se repite en Mercado Pago
+    @Column(name = "refund_key", nullable = false)
+    private String refundKey;
+
+    @Column(name = "job_id")
+    private UUID jobId;
+
+    @Column(name = "external_reference")
+    private String externalReference;
+
+    @Column(name = "payment_id")
+    private Long paymentId;
+
+    @Column(name = "tenant_id")
+    private String tenantId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "operation")
+    private RefundOperation operation;
+
+    // Null en devoluciones totales
+    @Column(name = "amount", precision = 10, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "reason")
+    private String reason;
+
+    @Column(name = "status")
+    private String status;
+
+    @Column(name = "mp_refund_id")
+    private Long mpRefundId;
+
+    @Column(name = "error_code")
+    private String errorCode;
+
+    @Column(name = "error_message")
+    private String errorMessage;
+
+    @Column(name = "date_created")
+    private OffsetDateTime dateCreated;
+
+    @Column(name = "date_processed")
+    private OffsetDateTime dateProcessed;
+
+    @Version
+    @Column(name = "version", columnDefinition = "bigint default 0")
+    private Long version;
+
+    @Embedded
+    private Audit audit;
+}
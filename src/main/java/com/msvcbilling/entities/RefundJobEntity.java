@@ -0,0 +1,68 @@
+package com.msvcbilling.entities;
+
+import com.msvcbilling.config.audit.Audit;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+@Entity
+@DynamicUpdate
+@Table(name = "refund_jobs",
+        uniqueConstraints = @UniqueConstraint(name = "uk_refund_jobs_tenant_job_key", columnNames = {"tenant_id", "job_key"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefundJobEntity {
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String COMPLETED_WITH_ERRORS = "COMPLETED_WITH_ERRORS";
+    // Error inesperado del proceso; reenviar la misma clave lo relanza
+    public static final String FAILED = "FAILED";
+
+    @Id
+    private UUID id;
+
+    // La clave es unica por tenant: dos gimnasios pueden usar la misma sin ver el proceso del otro
+    @Column(name = "tenant_id")
+    private String tenantId;
+
+    @Column(name = "job_key", nullable = false)
+    private String jobKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "operation")
+    private RefundOperation operation;
+
+    @Column(name = "reason")
+    private String reason;
+
+    @Column(name = "status")
+    private String status;
+
+    @Column(name = "total")
+    private int total;
+
+    @Column(name = "succeeded")
+    private int succeeded;
+
+    @Column(name = "failed")
+    private int failed;
+
+    @Column(name = "date_created")
+    private OffsetDateTime dateCreated;
+
+    @Column(name = "date_finished")
+    private OffsetDateTime dateFinished;
+
+    @Version
+    @Column(name = "version", columnDefinition = "bigint default 0")
+    private Long version;
+
+    @Embedded
+    private Audit audit;
+}
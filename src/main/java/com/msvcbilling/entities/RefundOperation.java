@@ -0,0 +1,8 @@
+package com.msvcbilling.entities;
+
+public enum RefundOperation {
+    // Devolucion total o parcial de un pago aprobado
+    REFUND,
+    // Cancelacion de un pago que todavia no se acredito
+    CANCEL
+}
@@ -0,0 +1,88 @@
+package com.msvcbilling.entities;
+
+import com.msvcbilling.config.audit.Audit;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Entity
+@DynamicUpdate
+@Table(name = "membership_subscriptions", indexes = {
+        @Index(name = "idx_membership_subscriptions_due", columnList = "status, next_attempt_date, next_charge_date")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SubscriptionEntity {
+    @Id
+    private UUID id;
+
+    @Column(name = "tenant_id")
+    private String tenantId;
+
+    @Column(name = "member_id")
+    private UUID memberId;
+
+    @Column(name = "amount", precision = 10, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "description")
+    private String description;
+
+    @Column(name = "status")
+    private String status;
+
+    @Column(name = "next_charge_date")
+    private LocalDate nextChargeDate;
+
+    // Fecha del proximo reintento tras un cobro fallido; next_charge_date sigue marcando el periodo
+    @Column(name = "next_attempt_date")
+    private LocalDate nextAttemptDate;
+
+    @Column(name = "failed_attempts")
+    private Integer failedAttempts;
+
+    @Column(name = "last_payment_reference")
+    private String lastPaymentReference;
+
+    @Column(name = "last_payment_status")
+    private String lastPaymentStatus;
+
+    @Column(name = "mp_customer_id")
+    private String mpCustomerId;
+
+    @Column(name = "mp_card_id")
+    private String mpCardId;
+
+    @Column(name = "payment_method_id")
+    private String paymentMethodId;
+
+    @Column(name = "payer_email")
+    private String payerEmail;
+
+    @Column(name = "payer_first_name")
+    private String payerFirstName;
+
+    @Column(name = "payer_last_name")
+    private String payerLastName;
+
+    @Column(name = "payer_identification_type")
+    private String payerIdentificationType;
+
+    @Column(name = "payer_identification_number")
+    private String payerIdentificationNumber;
+
+    // Detecta a otro nodo que retomo el shard y guardo la misma suscripcion
+    @Version
+    @Column(name = "version", columnDefinition = "bigint default 0")
+    private Long version;
+
+    @Embedded
+    private Audit audit;
+}
@@ -0,0 +1,9 @@
+package com.msvcbilling.events;
+
+import com.msvcbilling.dtos.PaymentResponse;
+
+public record PaymentStatusChangedEvent(
+        String externalReference,
+        String previousStatus,
+        PaymentResponse payment
+) {}
@@ -0,0 +1,21 @@
+package com.msvcbilling.exceptions;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Resultado de negocio esperado (no encontrado, duplicado, rechazado...). No captura stack trace:
+ * el coste de un error frecuente es el de un objeto, y GlobalExceptionController lo mapea a su codigo HTTP
+ * sin log de ERROR.
+ */
+@Getter
+public abstract class BillingException extends RuntimeException {
+    private final HttpStatus status;
+    private final String errorCode;
+
+    protected BillingException(HttpStatus status, String errorCode, String message) {
+        super(message, null, false, false);
+        this.status = status;
+        this.errorCode = errorCode;
+    }
+}
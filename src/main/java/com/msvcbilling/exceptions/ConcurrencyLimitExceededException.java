@@ -0,0 +1,14 @@
+package com.msvcbilling.exceptions;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+@Getter
+public class ConcurrencyLimitExceededException extends BillingException {
+    private final int retryAfterSeconds;
+
+    public ConcurrencyLimitExceededException(String message, int retryAfterSeconds) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "SERVICE_OVERLOADED", message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
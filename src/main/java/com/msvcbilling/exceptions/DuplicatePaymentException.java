@@ -0,0 +1,13 @@
+package com.msvcbilling.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public final class DuplicatePaymentException extends BillingException {
+
+    public static final DuplicatePaymentException INSTANCE = new DuplicatePaymentException();
+
+    private DuplicatePaymentException() {
+        super(HttpStatus.CONFLICT, "DUPLICATE_PAYMENT",
+                "La referencia externa ya fue usada para un cobro con otros datos");
+    }
+}
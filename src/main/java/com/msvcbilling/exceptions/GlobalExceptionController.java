@@ -1,8 +1,11 @@
 package com.msvcbilling.exceptions;
 
+import com.mercadopago.exceptions.MPException;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -81,6 +84,18 @@ public class GlobalExceptionController {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
     }
 
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ErrorResponse> handleIllegalArgumentException(IllegalArgumentException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(
+                "INVALID_ARGUMENT",
+                "Parámetros de la solicitud inválidos",
+                Collections.singletonList(ex.getMessage())
+        );
+
+        log.warn("Invalid argument: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+    }
+
     @ExceptionHandler(HttpRequestMethodNotSupportedException.class)
     public ResponseEntity<ErrorResponse> handleMethodNotSupportedException(HttpRequestMethodNotSupportedException ex) {
         List<String> supportedMethods = ex.getSupportedHttpMethods() != null ?
@@ -121,5 +136,31 @@ public class GlobalExceptionController {
         return ResponseEntity.status(HttpStatus.FORBIDDEN).body(errorResponse);
     }
 
+    @ExceptionHandler(BillingException.class)
+    public ResponseEntity<ErrorResponse> handleBillingException(BillingException ex, HttpServletRequest request) {
+        ErrorResponse errorResponse = new ErrorResponse(
+                ex.getErrorCode(),
+                ex.getMessage(),
+                Collections.singletonList("Path: " + request.getRequestURI())
+        );
+
+        log.debug("Business error {} for path {}", ex.getErrorCode(), request.getRequestURI());
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(ex.getStatus());
+        if (ex instanceof ConcurrencyLimitExceededException overloaded)
+            response.header(HttpHeaders.RETRY_AFTER, String.valueOf(overloaded.getRetryAfterSeconds()));
+        return response.body(errorResponse);
+    }
+
+    @ExceptionHandler(MPException.class)
+    public ResponseEntity<ErrorResponse> handleGatewayException(MPException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(
+                "GATEWAY_ERROR",
+                "Error de comunicación con Mercado Pago",
+                Collections.emptyList()
+        );
+
+        log.warn("Gateway error: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_GATEWAY).body(errorResponse);
+    }
 
-}
\ No newline at end of file
+}
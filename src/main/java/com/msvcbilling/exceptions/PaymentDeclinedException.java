@@ -0,0 +1,13 @@
+package com.msvcbilling.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public final class PaymentDeclinedException extends BillingException {
+
+    public static final PaymentDeclinedException INSTANCE = new PaymentDeclinedException();
+
+    private PaymentDeclinedException() {
+        super(HttpStatus.UNPROCESSABLE_ENTITY, "PAYMENT_DECLINED",
+                "Mercado Pago rechazó la solicitud de pago");
+    }
+}
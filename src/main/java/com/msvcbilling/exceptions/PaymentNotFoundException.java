@@ -0,0 +1,13 @@
+package com.msvcbilling.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public final class PaymentNotFoundException extends BillingException {
+
+    // Preasignada: sin stack trace ni datos por peticion, se puede reutilizar entre hilos
+    public static final PaymentNotFoundException INSTANCE = new PaymentNotFoundException();
+
+    private PaymentNotFoundException() {
+        super(HttpStatus.NOT_FOUND, "PAYMENT_NOT_FOUND", "Pago no encontrado para la referencia indicada");
+    }
+}
@@ -0,0 +1,12 @@
+package com.msvcbilling.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public final class RefundJobNotFoundException extends BillingException {
+
+    public static final RefundJobNotFoundException INSTANCE = new RefundJobNotFoundException();
+
+    private RefundJobNotFoundException() {
+        super(HttpStatus.NOT_FOUND, "REFUND_JOB_NOT_FOUND", "Proceso de devolución no encontrado");
+    }
+}
@@ -0,0 +1,13 @@
+package com.msvcbilling.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public final class RefundNotAllowedException extends BillingException {
+
+    public static final RefundNotAllowedException INSTANCE = new RefundNotAllowedException();
+
+    private RefundNotAllowedException() {
+        super(HttpStatus.CONFLICT, "REFUND_NOT_ALLOWED",
+                "El estado actual del pago no permite esta devolución o cancelación");
+    }
+}
@@ -0,0 +1,190 @@
+package com.msvcbilling.gateway;
+
+import com.mercadopago.client.cardtoken.CardTokenRequest;
+import com.mercadopago.client.payment.PaymentCreateRequest;
+import com.mercadopago.core.MPRequestOptions;
+import com.mercadopago.exceptions.MPApiException;
+import com.mercadopago.exceptions.MPException;
+import com.mercadopago.net.MPResourceList;
+import com.mercadopago.net.MPResultsResourcesPage;
+import com.mercadopago.net.MPSearchRequest;
+import com.mercadopago.resources.CardToken;
+import com.mercadopago.resources.payment.Payment;
+import com.mercadopago.resources.payment.PaymentRefund;
+import com.mercadopago.resources.paymentmethod.PaymentMethod;
+import com.msvcbilling.concurrency.AdaptiveConcurrencyLimiter;
+import com.msvcbilling.concurrency.ConcurrencyLimiters;
+import com.msvcbilling.concurrency.Priority;
+import com.msvcbilling.exceptions.ConcurrencyLimitExceededException;
+import com.msvcbilling.jfr.GatewayCallEvent;
+import com.msvcbilling.tenant.MercadoPagoTenantClients;
+import com.msvcbilling.tenant.TenantClients;
+import com.msvcbilling.tenant.TenantContext;
+import com.msvcbilling.tenant.TenantProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Punto unico de salida hacia Mercado Pago. Cada llamada emite un evento JFR con su duracion y resultado
+ * y pasa por el limitador adaptativo "gateway": la creacion de pagos es critica, las consultas se descartan primero.
+ * Las llamadas usan los clientes y el bulkhead del tenant actual (TenantContext).
+ */
+@Component
+@RequiredArgsConstructor
+public class MercadoPagoGateway {
+
+    private final MercadoPagoTenantClients tenantClients;
+    private final TenantProperties tenantProperties;
+    private final ConcurrencyLimiters concurrencyLimiters;
+    private final MeterRegistry meterRegistry;
+
+    public Payment createPayment(PaymentCreateRequest request, MPRequestOptions options) throws MPException, MPApiException {
+        return call("payment.create", Priority.CRITICAL,
+                clients -> clients.paymentClient().create(request, clients.options(options)));
+    }
+
+    public Payment getPayment(Long paymentId) throws MPException, MPApiException {
+        return call("payment.get", Priority.LOW,
+                clients -> clients.paymentClient().get(paymentId, clients.options(null)));
+    }
+
+    // Pagos creados con esa referencia externa: permite conocer el resultado de un cobro cuya respuesta se perdio
+    public List<Payment> searchPayments(String externalReference) throws MPException, MPApiException {
+        MPSearchRequest request = MPSearchRequest.builder()
+                .filters(Map.of("external_reference", externalReference))
+                .limit(10)
+                .offset(0)
+                .build();
+        return call("payment.search", Priority.CRITICAL, clients -> {
+            MPResultsResourcesPage<Payment> page = clients.paymentClient().search(request, clients.options(null));
+            return page != null && page.getResults() != null ? page.getResults() : List.of();
+        });
+    }
+
+    // amount null = devolucion total
+    public PaymentRefund refundPayment(Long paymentId, BigDecimal amount, MPRequestOptions options)
+            throws MPException, MPApiException {
+        return call("payment.refund", Priority.CRITICAL, clients -> amount == null
+                ? clients.paymentClient().refund(paymentId, clients.options(options))
+                : clients.paymentClient().refund(paymentId, amount, clients.options(options)));
+    }
+
+    public Payment cancelPayment(Long paymentId, MPRequestOptions options) throws MPException, MPApiException {
+        return call("payment.cancel", Priority.CRITICAL,
+                clients -> clients.paymentClient().cancel(paymentId, clients.options(options)));
+    }
+
+    public MPResourceList<PaymentMethod> listPaymentMethods() throws MPException, MPApiException {
+        return call("payment_method.list", Priority.LOW,
+                clients -> clients.paymentMethodClient().list(clients.options(null)));
+    }
+
+    public CardToken createCardToken(CardTokenRequest request) throws MPException, MPApiException {
+        return call("card_token.create", Priority.CRITICAL,
+                clients -> clients.cardTokenClient().create(request, clients.options(null)));
+    }
+
+    private <T> T call(String operation, Priority priority, GatewayCall<T> call) throws MPException, MPApiException {
+        TenantClients clients = tenantClients.forTenant(TenantContext.current());
+        acquireBulkhead(clients, operation);
+        try {
+            AdaptiveConcurrencyLimiter limiter = concurrencyLimiters.gateway();
+            AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire(priority).orElse(null);
+            if (permit == null) {
+                concurrencyLimiters.recordShed(limiter, priority);
+                throw new ConcurrencyLimitExceededException(
+                        "Limite de concurrencia hacia Mercado Pago alcanzado: " + operation,
+                        concurrencyLimiters.retryAfterSeconds());
+            }
+            return execute(clients, operation, permit, call);
+        } finally {
+            clients.bulkhead().release();
+        }
+    }
+
+    private <T> T execute(TenantClients clients, String operation, AdaptiveConcurrencyLimiter.Permit permit,
+                          GatewayCall<T> call) throws MPException, MPApiException {
+        GatewayCallEvent event = new GatewayCallEvent();
+        event.begin();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            T result = call.execute(clients);
+            outcome = "success";
+            permit.onSuccess();
+            commit(event, clients.tenantId(), operation, outcome, 200);
+            return result;
+        } catch (
+                MPApiException e) {
+            outcome = "api_error";
+            if (isOverload(e.getStatusCode()))
+                permit.onDropped();
+            else
+                permit.onIgnore();
+            commit(event, clients.tenantId(), operation, outcome, e.getStatusCode());
+            throw e;
+        } catch (
+                MPException e) {
+            permit.onDropped();
+            commit(event, clients.tenantId(), operation, outcome, 0);
+            throw e;
+        } finally {
+            permit.onIgnore();
+            sample.stop(Timer.builder("billing.gateway.calls")
+                    .tag("tenant", clients.tenantId())
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    // Espera acotada: con hilos virtuales bloquear es barato, pero un tenant saturado debe fallar rapido
+    private void acquireBulkhead(TenantClients clients, String operation) {
+        boolean acquired;
+        try {
+            acquired = clients.bulkhead().tryAcquire(
+                    tenantProperties.getBulkheadWait().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (
+                InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            Counter.builder("billing.tenant.bulkhead.rejected")
+                    .tag("tenant", clients.tenantId())
+                    .register(meterRegistry)
+                    .increment();
+            throw new ConcurrencyLimitExceededException(
+                    "Bulkhead del tenant " + clients.tenantId() + " saturado: " + operation,
+                    concurrencyLimiters.retryAfterSeconds());
+        }
+    }
+
+    private static boolean isOverload(int statusCode) {
+        return statusCode == 429 || statusCode >= 500;
+    }
+
+    private static void commit(GatewayCallEvent event, String tenant, String operation, String outcome, int httpStatus) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.tenant = tenant;
+            event.operation = operation;
+            event.outcome = outcome;
+            event.httpStatus = httpStatus;
+            event.commit();
+        }
+    }
+
+    @FunctionalInterface
+    private interface GatewayCall<T> {
+        T execute(TenantClients clients) throws MPException, MPApiException;
+    }
+}
@@ -0,0 +1,55 @@
+package com.msvcbilling.health;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Indicador cuyo resultado se calcula en segundo plano (HealthProbeScheduler) y se sirve desde memoria:
+ * los probes de Kubernetes o Eureka nunca disparan consultas a la BD ni llamadas a Mercado Pago.
+ */
+public abstract class CachedHealthIndicator implements HealthIndicator {
+
+    private final Duration interval;
+    private volatile Health cached = Health.unknown().withDetail("reason", "Sin probe todavía").build();
+    private volatile long lastRefreshNanos;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    protected CachedHealthIndicator(Duration interval) {
+        this.interval = interval;
+    }
+
+    protected abstract Health probe() throws Exception;
+
+    @Override
+    public Health health() {
+        // Si el refresco dejo de correr (probe colgado) el resultado cacheado ya no es confiable
+        if (lastRefreshNanos != 0 && System.nanoTime() - lastRefreshNanos > interval.multipliedBy(3).toNanos())
+            return Health.down().withDetail("reason", "Probe sin actualizar").build();
+        return cached;
+    }
+
+    // Un solo refresco en curso por indicador: un probe colgado no acumula reintentos
+    boolean tryBeginRefresh() {
+        boolean due = lastRefreshNanos == 0 || System.nanoTime() - lastRefreshNanos >= interval.toNanos();
+        return due && refreshing.compareAndSet(false, true);
+    }
+
+    void refresh() {
+        try {
+            Health result;
+            try {
+                result = probe();
+            } catch (
+                    Exception e) {
+                result = Health.down().withDetail("error", e.getClass().getSimpleName() + ": " + e.getMessage()).build();
+            }
+            cached = result;
+            lastRefreshNanos = System.nanoTime();
+        } finally {
+            refreshing.set(false);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.msvcbilling.health;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Conectividad con Postgres (SELECT 1 con timeout) y estado de los pools Hikari (primario y replica si existe).
+ * Reemplaza al indicador "db" de Spring Boot, que consulta la BD en cada probe.
+ */
+@Component("billingDatabase")
+public class DatabaseHealthIndicator extends CachedHealthIndicator {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectProvider<HikariDataSource> pools;
+    private final int queryTimeoutSeconds;
+
+    public DatabaseHealthIndicator(JdbcTemplate jdbcTemplate, ObjectProvider<HikariDataSource> pools,
+                                   @Value("${billing.health.database-interval:PT10S}") Duration interval,
+                                   @Value("${billing.health.database-timeout-seconds:2}") int queryTimeoutSeconds) {
+        super(interval);
+        this.jdbcTemplate = jdbcTemplate;
+        this.pools = pools;
+        this.queryTimeoutSeconds = queryTimeoutSeconds;
+    }
+
+    @Override
+    protected Health probe() {
+        JdbcTemplate probe = new JdbcTemplate(jdbcTemplate.getDataSource());
+        probe.setQueryTimeout(queryTimeoutSeconds);
+        probe.queryForObject("SELECT 1", Integer.class);
+
+        Health.Builder health = Health.up();
+        for (HikariDataSource pool : pools.orderedStream().toList()) {
+            HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+            if (mxBean != null) {
+                health.withDetail(pool.getPoolName(), List.of(
+                        "active=" + mxBean.getActiveConnections(),
+                        "idle=" + mxBean.getIdleConnections(),
+                        "waiting=" + mxBean.getThreadsAwaitingConnection(),
+                        "max=" + pool.getMaximumPoolSize()));
+            }
+        }
+        return health.build();
+    }
+}
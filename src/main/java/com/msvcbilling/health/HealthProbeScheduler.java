@@ -0,0 +1,42 @@
+package com.msvcbilling.health;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Refresca los indicadores cacheados que vencieron, cada uno en su hilo virtual y sin esperarlo,
+ * para que un probe lento (p. ej. Mercado Pago) no retrase a los demas.
+ */
+@Component
+@RequiredArgsConstructor
+public class HealthProbeScheduler {
+
+    private final List<CachedHealthIndicator> indicators;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialProbe() {
+        refreshDue();
+    }
+
+    @Scheduled(fixedDelayString = "${billing.health.tick:PT5S}")
+    public void refreshDue() {
+        for (CachedHealthIndicator indicator : indicators) {
+            if (indicator.tryBeginRefresh())
+                executor.submit(indicator::refresh);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
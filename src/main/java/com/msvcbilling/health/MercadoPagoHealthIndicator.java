@@ -0,0 +1,52 @@
+package com.msvcbilling.health;
+
+import com.mercadopago.exceptions.MPApiException;
+import com.msvcbilling.exceptions.ConcurrencyLimitExceededException;
+import com.msvcbilling.gateway.MercadoPagoGateway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Alcanzabilidad de Mercado Pago con una consulta liviana (metodos de pago) cada billing.health.gateway-interval.
+ * Una respuesta HTTP de error prueba que el API es alcanzable. Un fallo de conectividad se reporta UNKNOWN
+ * con el detalle y nunca DOWN: Eureka agrega todos los indicadores y una caida de Mercado Pago no debe
+ * sacar de servicio a toda la flota.
+ */
+@Component("mercadoPago")
+public class MercadoPagoHealthIndicator extends CachedHealthIndicator {
+
+    private final MercadoPagoGateway mercadoPagoGateway;
+
+    public MercadoPagoHealthIndicator(MercadoPagoGateway mercadoPagoGateway,
+                                      @Value("${billing.health.gateway-interval:PT30S}") Duration interval) {
+        super(interval);
+        this.mercadoPagoGateway = mercadoPagoGateway;
+    }
+
+    @Override
+    public Health health() {
+        Health health = super.health();
+        if (!Status.DOWN.equals(health.getStatus()))
+            return health;
+        return Health.unknown().withDetails(health.getDetails()).withDetail("reachable", false).build();
+    }
+
+    @Override
+    protected Health probe() throws Exception {
+        try {
+            mercadoPagoGateway.listPaymentMethods();
+            return Health.up().build();
+        } catch (
+                MPApiException e) {
+            return Health.up().withDetail("lastStatusCode", e.getStatusCode()).build();
+        } catch (
+                ConcurrencyLimitExceededException e) {
+            // Saturado pero vivo: la saturacion la reporta billingSaturation
+            return Health.up().withDetail("probe", "skipped").build();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.msvcbilling.health;
+
+import com.msvcbilling.concurrency.AdaptiveConcurrencyLimiter;
+import com.msvcbilling.concurrency.ConcurrencyLimiters;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * OUT_OF_SERVICE mientras el limitador de entrada, el de Mercado Pago o un pool de conexiones esten saturados
+ * en varias muestras seguidas; forma parte del grupo readiness para que el trafico se desvie a otra instancia.
+ */
+@Component("billingSaturation")
+public class SaturationHealthIndicator extends CachedHealthIndicator {
+
+    private final ConcurrencyLimiters concurrencyLimiters;
+    private final ObjectProvider<HikariDataSource> pools;
+    private final int consecutiveSamples;
+    private int saturatedSamples;
+
+    public SaturationHealthIndicator(ConcurrencyLimiters concurrencyLimiters, ObjectProvider<HikariDataSource> pools,
+                                     @Value("${billing.health.saturation-interval:PT5S}") Duration interval,
+                                     @Value("${billing.health.saturation-samples:2}") int consecutiveSamples) {
+        super(interval);
+        this.concurrencyLimiters = concurrencyLimiters;
+        this.pools = pools;
+        this.consecutiveSamples = consecutiveSamples;
+    }
+
+    @Override
+    protected Health probe() {
+        List<String> saturated = new ArrayList<>();
+        for (AdaptiveConcurrencyLimiter limiter : List.of(concurrencyLimiters.inbound(), concurrencyLimiters.gateway())) {
+            if (limiter.isSaturated())
+                saturated.add(limiter.getName());
+        }
+        for (HikariDataSource pool : pools.orderedStream().toList()) {
+            HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+            if (mxBean != null && mxBean.getThreadsAwaitingConnection() > 0
+                    && mxBean.getActiveConnections() >= pool.getMaximumPoolSize())
+                saturated.add(pool.getPoolName());
+        }
+
+        // HealthProbeScheduler nunca ejecuta dos refrescos del mismo indicador a la vez
+        saturatedSamples = saturated.isEmpty() ? 0 : saturatedSamples + 1;
+        if (saturatedSamples >= consecutiveSamples)
+            return Health.outOfService().withDetail("saturated", saturated).build();
+        return Health.up().withDetail("saturated", saturated).build();
+    }
+}
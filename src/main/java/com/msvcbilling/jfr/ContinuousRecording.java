@@ -0,0 +1,95 @@
+package com.msvcbilling.jfr;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Grabacion JFR continua en disco con tamaño y antigüedad acotados. Los eventos propios del
+ * pipeline de pagos se habilitan sin umbral; el resto usa la configuracion "default" del JDK.
+ */
+@Component
+@Slf4j
+public class ContinuousRecording {
+
+    private static final List<Class<? extends Event>> BILLING_EVENTS = List.of(
+            PaymentProcessedEvent.class,
+            GatewayCallEvent.class,
+            IdempotentReplayEvent.class,
+            StatusRefreshEvent.class,
+            PaymentUpdateEvent.class);
+
+    @Value("${billing.jfr.enabled:true}")
+    private boolean enabled;
+
+    @Value("${billing.jfr.max-age:PT30M}")
+    private Duration maxAge;
+
+    @Value("${billing.jfr.max-size:256MB}")
+    private DataSize maxSize;
+
+    @Value("${billing.jfr.dump-directory:/tmp/jfr}")
+    private Path dumpDirectory;
+
+    private Recording recording;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled)
+            return;
+        try {
+            recording = new Recording(Configuration.getConfiguration("default"));
+            // Por clase: los eventos se registran con su @Name, no con el nombre de la clase Java
+            for (Class<? extends Event> event : BILLING_EVENTS)
+                recording.enable(event).withoutThreshold();
+            recording.setName("msvc-billing-continuous");
+            recording.setToDisk(true);
+            recording.setMaxAge(maxAge);
+            recording.setMaxSize(maxSize.toBytes());
+            recording.start();
+            log.info("Grabación JFR continua iniciada (maxAge={}, maxSize={})", maxAge, maxSize);
+        } catch (
+                Exception e) {
+            log.warn("No se pudo iniciar la grabación JFR continua: {}", e.getMessage());
+            recording = null;
+        }
+    }
+
+    // Vuelca a disco los ultimos minutos de la grabacion; JFR entrega los chunks que cubren el rango
+    public Optional<Path> dump(Duration window) throws IOException {
+        if (recording == null)
+            return Optional.empty();
+
+        Instant end = Instant.now();
+        try (InputStream stream = recording.getStream(end.minus(window), end)) {
+            if (stream == null)
+                return Optional.empty();
+            Files.createDirectories(dumpDirectory);
+            Path file = dumpDirectory.resolve("msvc-billing-" + end.toEpochMilli() + ".jfr");
+            Files.copy(stream, file, StandardCopyOption.REPLACE_EXISTING);
+            return Optional.of(file);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (recording != null)
+            recording.close();
+    }
+}
@@ -0,0 +1,28 @@
+package com.msvcbilling.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.msvcbilling.GatewayCall")
+@Label("Gateway Call")
+@Description("Llamada al API de Mercado Pago")
+@Category({"FitDesk", "Billing"})
+@StackTrace(false)
+public class GatewayCallEvent extends Event {
+
+    @Label("Tenant")
+    public String tenant;
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Outcome")
+    public String outcome;
+
+    @Label("HTTP Status")
+    public int httpStatus;
+}
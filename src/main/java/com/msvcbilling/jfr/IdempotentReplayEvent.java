@@ -0,0 +1,22 @@
+package com.msvcbilling.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.msvcbilling.IdempotentReplay")
+@Label("Idempotent Replay")
+@Description("Pago existente retornado por idempotencia")
+@Category({"FitDesk", "Billing"})
+@StackTrace(false)
+public class IdempotentReplayEvent extends Event {
+
+    @Label("External Reference")
+    public String externalReference;
+
+    @Label("Status")
+    public String status;
+}
@@ -0,0 +1,42 @@
+package com.msvcbilling.jfr;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+@Component
+@Endpoint(id = "jfr")
+@RequiredArgsConstructor
+public class JfrDumpEndpoint {
+
+    private static final int DEFAULT_MINUTES = 5;
+
+    private final ContinuousRecording continuousRecording;
+
+    @WriteOperation
+    public Map<String, Object> dump(@Nullable Integer minutes) throws IOException {
+        int window = minutes != null && minutes > 0 ? minutes : DEFAULT_MINUTES;
+        Optional<Path> file = continuousRecording.dump(Duration.ofMinutes(window));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("minutes", window);
+        if (file.isPresent()) {
+            result.put("status", "DUMPED");
+            result.put("file", file.get().toString());
+            result.put("bytes", Files.size(file.get()));
+        } else {
+            result.put("status", "NO_DATA");
+        }
+        return result;
+    }
+}
@@ -0,0 +1,25 @@
+package com.msvcbilling.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.msvcbilling.PaymentProcessed")
+@Label("Payment Processed")
+@Description("Procesamiento completo de un pago directo")
+@Category({"FitDesk", "Billing"})
+@StackTrace(false)
+public class PaymentProcessedEvent extends Event {
+
+    @Label("External Reference")
+    public String externalReference;
+
+    @Label("Status")
+    public String status;
+
+    @Label("Outcome")
+    public String outcome;
+}
@@ -0,0 +1,28 @@
+package com.msvcbilling.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.msvcbilling.PaymentUpdate")
+@Label("Payment Update")
+@Description("Actualizacion de un pago local desde Mercado Pago")
+@Category({"FitDesk", "Billing"})
+@StackTrace(false)
+public class PaymentUpdateEvent extends Event {
+
+    @Label("Payment Id")
+    public long paymentId;
+
+    @Label("External Reference")
+    public String externalReference;
+
+    @Label("Status")
+    public String status;
+
+    @Label("Outcome")
+    public String outcome;
+}
@@ -0,0 +1,28 @@
+package com.msvcbilling.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.msvcbilling.StatusRefresh")
+@Label("Status Refresh")
+@Description("Consulta de estado de un pago contra Mercado Pago")
+@Category({"FitDesk", "Billing"})
+@StackTrace(false)
+public class StatusRefreshEvent extends Event {
+
+    @Label("External Reference")
+    public String externalReference;
+
+    @Label("Previous Status")
+    public String previousStatus;
+
+    @Label("Current Status")
+    public String currentStatus;
+
+    @Label("Outcome")
+    public String outcome;
+}
@@ -0,0 +1,19 @@
+package com.msvcbilling.mappers;
+
+import com.msvcbilling.config.MapStructConfig;
+import com.msvcbilling.dtos.RefundJobResponse;
+import com.msvcbilling.dtos.RefundResponse;
+import com.msvcbilling.entities.RefundEntity;
+import com.msvcbilling.entities.RefundJobEntity;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(config = MapStructConfig.class)
+public interface RefundMapper {
+
+    RefundResponse entityToResponse(RefundEntity entity);
+
+    @Mapping(source = "id", target = "jobId")
+    @Mapping(target = "processed", expression = "java(entity.getSucceeded() + entity.getFailed())")
+    RefundJobResponse jobToResponse(RefundJobEntity entity);
+}
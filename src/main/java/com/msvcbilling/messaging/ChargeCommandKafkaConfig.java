@@ -0,0 +1,47 @@
+package com.msvcbilling.messaging;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.ExponentialBackOff;
+
+import java.time.Duration;
+
+/**
+ * Contenedor por lotes para los comandos de cobro. Reutiliza la ConsumerFactory autoconfigurada
+ * (con sus metricas de cliente, incluido records-lag) y reparte las particiones entre varios consumidores.
+ */
+@Configuration
+@ConditionalOnProperty(name = "billing.kafka.charge.enabled", havingValue = "true")
+public class ChargeCommandKafkaConfig {
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> chargeCommandContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory,
+            KafkaTemplate<Object, Object> kafkaTemplate,
+            @Value("${billing.kafka.charge.consumers:3}") int consumers,
+            @Value("${billing.kafka.charge.retry-max-interval:PT30S}") Duration retryMaxInterval,
+            @Value("${billing.kafka.charge.retry-max-elapsed:PT30M}") Duration retryMaxElapsed) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.setBatchListener(true);
+        factory.setConcurrency(consumers);
+
+        // Solo llegan aqui fallos transitorios (Mercado Pago saturado o caido): el lote se reentrega completo,
+        // processDirectPayment es idempotente. Agotado el plazo los comandos van a <topic>.DLT para no
+        // bloquear la particion sin perderlos
+        ExponentialBackOff backOff = new ExponentialBackOff(1000, 2.0);
+        backOff.setMaxInterval(retryMaxInterval.toMillis());
+        backOff.setMaxElapsedTime(retryMaxElapsed.toMillis());
+        factory.setCommonErrorHandler(new DefaultErrorHandler(new DeadLetterPublishingRecoverer(kafkaTemplate), backOff));
+        return factory;
+    }
+}
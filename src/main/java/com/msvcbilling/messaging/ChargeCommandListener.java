@@ -0,0 +1,225 @@
+package com.msvcbilling.messaging;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mercadopago.exceptions.MPException;
+import com.msvcbilling.dtos.ChargeResult;
+import com.msvcbilling.dtos.DirectPaymentRequest;
+import com.msvcbilling.dtos.PaymentResponse;
+import com.msvcbilling.exceptions.BillingException;
+import com.msvcbilling.exceptions.ConcurrencyLimitExceededException;
+import com.msvcbilling.exceptions.ErrorResponse;
+import com.msvcbilling.services.PaymentService;
+import com.msvcbilling.tenant.MercadoPagoTenantClients;
+import com.msvcbilling.tenant.TenantContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Consumidor por lotes de comandos de cobro (mismo contenido que DirectPaymentRequest, clave = externalReference).
+ * Dentro de un lote los comandos de la misma referencia se procesan en orden y las referencias distintas
+ * en paralelo sobre hilos virtuales. El resultado de cada comando se publica en el topic de respuesta y el
+ * offset del lote solo se confirma cuando todas las respuestas fueron aceptadas por el broker.
+ * Si Mercado Pago descarta por saturacion o no responde (5xx, timeout) el lote falla y se reentrega.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "billing.kafka.charge.enabled", havingValue = "true")
+public class ChargeCommandListener {
+
+    static final String TENANT_HEADER = "tenant-id";
+
+    private final PaymentService paymentService;
+    private final MercadoPagoTenantClients tenantClients;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${billing.kafka.charge.reply-topic:billing.charge-results}")
+    private String replyTopic;
+
+    @Value("${billing.kafka.charge.parallelism:32}")
+    private int parallelism;
+
+    @KafkaListener(
+            id = "charge-commands",
+            topics = "${billing.kafka.charge.topic:billing.charge-commands}",
+            groupId = "${billing.kafka.charge.group-id:msvc-billing-charges}",
+            containerFactory = "chargeCommandContainerFactory")
+    public void onCommands(List<ConsumerRecord<String, String>> records) {
+        DistributionSummary.builder("billing.kafka.charge.batch.size")
+                .register(meterRegistry)
+                .record(records.size());
+        Timer.Sample sample = Timer.start(meterRegistry);
+
+        Map<String, List<Command>> byReference = new LinkedHashMap<>();
+        List<CompletableFuture<?>> replies = Collections.synchronizedList(new ArrayList<>());
+        for (ConsumerRecord<String, String> record : records) {
+            Command command = parse(record, replies);
+            if (command != null)
+                byReference.computeIfAbsent(command.request().externalReference(), k -> new ArrayList<>()).add(command);
+        }
+
+        AtomicReference<RuntimeException> retry = new AtomicReference<>();
+        Semaphore permits = new Semaphore(parallelism);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (List<Command> commands : byReference.values()) {
+                permits.acquireUninterruptibly();
+                executor.submit(() -> {
+                    try {
+                        for (Command command : commands) {
+                            if (retry.get() != null)
+                                return;
+                            RuntimeException failure = handle(command, replies);
+                            if (failure != null) {
+                                retry.compareAndSet(null, failure);
+                                return;
+                            }
+                        }
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+
+        CompletableFuture.allOf(replies.toArray(CompletableFuture[]::new)).join();
+        sample.stop(Timer.builder("billing.kafka.charge.batch").register(meterRegistry));
+
+        if (retry.get() != null)
+            throw retry.get();
+    }
+
+    private Command parse(ConsumerRecord<String, String> record, List<CompletableFuture<?>> replies) {
+        String tenantId = header(record, TENANT_HEADER);
+        // Tombstone (valor nulo, p. ej. compactacion del topic): no es un comando
+        if (record.value() == null) {
+            log.debug("Se ignora tombstone en {}-{}@{}", record.topic(), record.partition(), record.offset());
+            return null;
+        }
+        try {
+            DirectPaymentRequest request = objectMapper.readValue(record.value(), DirectPaymentRequest.class);
+            if (request == null || request.externalReference() == null) {
+                replies.add(reply(record, new ChargeResult(record.key(), tenantId, "invalid", null,
+                        error("INVALID_COMMAND", "El comando no tiene referencia externa"))));
+                return null;
+            }
+            return new Command(record, request, tenantId != null ? tenantId : TenantContext.DEFAULT_TENANT);
+        } catch (
+                JsonProcessingException e) {
+            replies.add(reply(record, new ChargeResult(record.key(), tenantId, "invalid", null,
+                    error("INVALID_COMMAND", "El comando no es un JSON de cobro valido"))));
+            return null;
+        }
+    }
+
+    // Excepcion a relanzar si el lote debe reintentarse (load shedding o Mercado Pago no disponible); null si termino
+    private RuntimeException handle(Command command, List<CompletableFuture<?>> replies) {
+        DirectPaymentRequest request = command.request();
+        ChargeResult result;
+        if (!tenantClients.isKnown(command.tenantId())) {
+            result = new ChargeResult(request.externalReference(), command.tenantId(), "invalid", null,
+                    error("UNKNOWN_TENANT", "El gimnasio no tiene credenciales de pago configuradas"));
+        } else {
+            Set<ConstraintViolation<DirectPaymentRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                result = new ChargeResult(request.externalReference(), command.tenantId(), "invalid", null,
+                        new ErrorResponse("VALIDATION_ERROR", "Errores de validación en los campos enviados",
+                                violations.stream().map(v -> v.getPropertyPath() + ": " + v.getMessage()).toList()));
+            } else {
+                try (TenantContext.Scope scope = TenantContext.open(command.tenantId())) {
+                    PaymentResponse payment = paymentService.processDirectPayment(request);
+                    result = new ChargeResult(request.externalReference(), command.tenantId(), "processed", payment, null);
+                } catch (
+                        ConcurrencyLimitExceededException e) {
+                    return e;
+                } catch (
+                        MPException e) {
+                    // Los 4xx llegan como PaymentDeclinedException: aqui solo quedan 429, 5xx y errores de red
+                    log.warn("Mercado Pago no disponible para el comando {}: {}", request.externalReference(), e.getMessage());
+                    return new IllegalStateException(
+                            "Lote de cobros diferido: Mercado Pago no disponible para " + request.externalReference(), e);
+                } catch (
+                        BillingException e) {
+                    result = new ChargeResult(request.externalReference(), command.tenantId(), "rejected", null,
+                            error(e.getErrorCode(), e.getMessage()));
+                } catch (
+                        Exception e) {
+                    log.warn("Error procesando comando de cobro {}: {}", request.externalReference(), e.getMessage());
+                    result = new ChargeResult(request.externalReference(), command.tenantId(), "error", null,
+                            error("PAYMENT_ERROR", e.getMessage()));
+                }
+            }
+        }
+        replies.add(reply(command.record(), result));
+        return null;
+    }
+
+    private CompletableFuture<?> reply(ConsumerRecord<String, String> source, ChargeResult result) {
+        Counter.builder("billing.kafka.charge.commands")
+                .tag("outcome", result.outcome())
+                .register(meterRegistry)
+                .increment();
+
+        String topic = header(source, KafkaHeaders.REPLY_TOPIC);
+        ProducerRecord<String, String> record = new ProducerRecord<>(
+                topic != null ? topic : replyTopic, result.externalReference(), toJson(result));
+        Header correlation = source.headers().lastHeader(KafkaHeaders.CORRELATION_ID);
+        if (correlation != null)
+            record.headers().add(KafkaHeaders.CORRELATION_ID, correlation.value());
+        if (result.tenantId() != null)
+            record.headers().add(TENANT_HEADER, result.tenantId().getBytes(StandardCharsets.UTF_8));
+        return kafkaTemplate.send(record);
+    }
+
+    private String toJson(ChargeResult result) {
+        try {
+            return objectMapper.writeValueAsString(result);
+        } catch (
+                JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el resultado de cobro", e);
+        }
+    }
+
+    private static String header(ConsumerRecord<String, String> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        return header != null ? new String(header.value(), StandardCharsets.UTF_8) : null;
+    }
+
+    private static ErrorResponse error(String code, String message) {
+        return new ErrorResponse(code, message, Collections.emptyList());
+    }
+
+    private record Command(ConsumerRecord<String, String> record, DirectPaymentRequest request, String tenantId) {
+    }
+}
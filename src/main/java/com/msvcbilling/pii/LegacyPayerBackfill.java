@@ -0,0 +1,163 @@
+package com.msvcbilling.pii;
+
+import com.msvcbilling.entities.PaymentEntity;
+import com.msvcbilling.services.PayerService;
+import com.msvcbilling.tenant.TenantContext;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Migra los datos del pagador guardados en claro en payments y payments_archive (columnas payer_* y token)
+ * a la tabla cifrada payers y los borra de la fila original. Procesa lotes con SKIP LOCKED, de modo que
+ * varias instancias pueden migrar en paralelo. El archivado espera a que termine para no mover filas sin payer_id.
+ * Mientras existan las columnas antiguas se sigue ejecutando: durante un despliegue gradual las instancias viejas
+ * siguen escribiendo en claro. Eliminarlas es un paso manual una vez migradas todas las instancias.
+ */
+@Slf4j
+@Component
+public class LegacyPayerBackfill {
+
+    private static final List<String> TABLES = List.of("payments", "payments_archive");
+    private static final UUID FIRST_ID = new UUID(0, 0);
+    private static final String PENDING = """
+            (payer_email IS NOT NULL OR payer_first_name IS NOT NULL OR payer_last_name IS NOT NULL
+             OR payer_identification_number IS NOT NULL OR token IS NOT NULL)""";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final PayerService payerService;
+    private final EntityManagerFactory entityManagerFactory;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean complete;
+
+    @Value("${billing.pii.backfill.enabled:true}")
+    private boolean enabled;
+
+    @Value("${billing.pii.backfill.batch-size:500}")
+    private int batchSize;
+
+    public LegacyPayerBackfill(NamedParameterJdbcTemplate jdbcTemplate,
+                               PayerService payerService,
+                               EntityManagerFactory entityManagerFactory,
+                               PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.payerService = payerService;
+        this.entityManagerFactory = entityManagerFactory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public boolean isComplete() {
+        return complete || !enabled;
+    }
+
+    // Indica si payments conserva las columnas en claro; el archivado excluye entonces las filas sin migrar
+    public boolean hasLegacyColumns() {
+        return hasColumn("payments", "payer_email");
+    }
+
+    // Tras completar sigue recogiendo filas escritas en claro por instancias sin desplegar
+    @Scheduled(initialDelayString = "${billing.pii.backfill.initial-delay:PT30S}",
+            fixedDelayString = "${billing.pii.backfill.interval:PT10M}")
+    public void scheduledBackfill() {
+        if (!enabled || !running.compareAndSet(false, true))
+            return;
+        try {
+            int total = 0;
+            for (String table : TABLES)
+                total += backfill(table);
+            complete = true;
+            if (total > 0)
+                log.info("Datos de pagador migrados a payers: {} filas", total);
+        } catch (
+                Exception e) {
+            log.warn("Error migrando datos de pagador a payers: {}", e.getMessage());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int backfill(String table) {
+        if (!hasColumn(table, "payer_email"))
+            return 0;
+        jdbcTemplate.getJdbcTemplate().execute("ALTER TABLE " + table + " ADD COLUMN IF NOT EXISTS payer_id uuid");
+
+        int total = 0;
+        UUID lastId = FIRST_ID;
+        List<UUID> migrated;
+        do {
+            UUID after = lastId;
+            migrated = transactionTemplate.execute(tx -> migrateBatch(table, after));
+            total += migrated.size();
+            if (!migrated.isEmpty())
+                lastId = migrated.getLast();
+        } while (migrated.size() == batchSize);
+
+        // Las actualizaciones nativas no pasan por Hibernate: invalidar la cache de segundo nivel de pagos
+        if (total > 0 && "payments".equals(table))
+            entityManagerFactory.getCache().evict(PaymentEntity.class);
+        return total;
+    }
+
+    // Avanza por clave primaria: cada lote sigue donde termino el anterior en lugar de volver a recorrer la tabla
+    private List<UUID> migrateBatch(String table, UUID lastId) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList("""
+                        SELECT id, tenant_id, payer_email, payer_first_name, payer_last_name,
+                               payer_identification_type, payer_identification_number
+                        FROM %s
+                        WHERE id > :lastId AND %s
+                        ORDER BY id
+                        LIMIT :batchSize
+                        FOR UPDATE SKIP LOCKED
+                        """.formatted(table, PENDING),
+                Map.of("lastId", lastId, "batchSize", batchSize));
+        if (rows.isEmpty())
+            return List.of();
+
+        MapSqlParameterSource[] updates = rows.stream()
+                .map(row -> new MapSqlParameterSource()
+                        .addValue("id", row.get("id"))
+                        .addValue("payerId", resolvePayerId(row)))
+                .toArray(MapSqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate("""
+                UPDATE %s
+                SET payer_id = coalesce(payer_id, :payerId),
+                    payer_email = NULL, payer_first_name = NULL, payer_last_name = NULL,
+                    payer_identification_type = NULL, payer_identification_number = NULL, token = NULL
+                WHERE id = :id
+                """.formatted(table), updates);
+        return rows.stream().map(row -> (UUID) row.get("id")).toList();
+    }
+
+    // Filas sin email no generan pagador: solo se borran sus datos en claro
+    private UUID resolvePayerId(Map<String, Object> row) {
+        String tenantId = (String) row.get("tenant_id");
+        return payerService.resolvePayerId(
+                tenantId != null ? tenantId : TenantContext.DEFAULT_TENANT,
+                (String) row.get("payer_email"),
+                (String) row.get("payer_first_name"),
+                (String) row.get("payer_last_name"),
+                (String) row.get("payer_identification_type"),
+                (String) row.get("payer_identification_number"));
+    }
+
+    private boolean hasColumn(String table, String column) {
+        Boolean exists = jdbcTemplate.queryForObject("""
+                        SELECT EXISTS (SELECT 1 FROM information_schema.columns
+                                       WHERE table_schema = current_schema() AND table_name = :table AND column_name = :column)
+                        """,
+                Map.of("table", table, "column", column), Boolean.class);
+        return Boolean.TRUE.equals(exists);
+    }
+}
@@ -0,0 +1,99 @@
+package com.msvcbilling.pii;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Locale;
+
+/**
+ * Cifrado por campo (AES-GCM, IV aleatorio) y blind indexes (HMAC-SHA256 truncado) para los datos del pagador.
+ * Las dos claves son independientes: el indice permite buscar por igualdad sin poder descifrar nada.
+ * Formato de un campo cifrado: version (1 byte) + IV (12) + ciphertext con tag.
+ */
+@Component
+public class PiiCipher {
+
+    private static final String CIPHER = "AES/GCM/NoPadding";
+    private static final String MAC = "HmacSHA256";
+    private static final byte FORMAT = 1;
+    private static final int IV_BYTES = 12;
+    private static final int TAG_BITS = 128;
+    private static final int INDEX_BYTES = 16;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final SecretKeySpec encryptionKey;
+    private final SecretKeySpec indexKey;
+
+    public PiiCipher(@Value("${billing.pii.encryption-key}") String encryptionKey,
+                     @Value("${billing.pii.index-key}") String indexKey) {
+        this.encryptionKey = new SecretKeySpec(Base64.getDecoder().decode(encryptionKey), "AES");
+        this.indexKey = new SecretKeySpec(Base64.getDecoder().decode(indexKey), MAC);
+    }
+
+    public byte[] encrypt(String value) {
+        if (value == null)
+            return null;
+        byte[] iv = new byte[IV_BYTES];
+        RANDOM.nextBytes(iv);
+        try {
+            Cipher cipher = Cipher.getInstance(CIPHER);
+            cipher.init(Cipher.ENCRYPT_MODE, encryptionKey, new GCMParameterSpec(TAG_BITS, iv));
+            byte[] encrypted = cipher.doFinal(value.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.allocate(1 + IV_BYTES + encrypted.length).put(FORMAT).put(iv).put(encrypted).array();
+        } catch (
+                GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo cifrar el dato del pagador", e);
+        }
+    }
+
+    public String decrypt(byte[] value) {
+        if (value == null)
+            return null;
+        if (value.length <= 1 + IV_BYTES || value[0] != FORMAT)
+            throw new IllegalStateException("Formato de dato cifrado desconocido");
+        try {
+            Cipher cipher = Cipher.getInstance(CIPHER);
+            cipher.init(Cipher.DECRYPT_MODE, encryptionKey, new GCMParameterSpec(TAG_BITS, value, 1, IV_BYTES));
+            return new String(cipher.doFinal(value, 1 + IV_BYTES, value.length - 1 - IV_BYTES), StandardCharsets.UTF_8);
+        } catch (
+                GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo descifrar el dato del pagador", e);
+        }
+    }
+
+    public byte[] emailIndex(String email) {
+        if (email == null || email.isBlank())
+            return null;
+        return blindIndex("email:" + email.trim().toLowerCase(Locale.ROOT));
+    }
+
+    // Normaliza tipo y numero para que "dni 12.345.678" y "DNI 12345678" den el mismo indice
+    public byte[] documentIndex(String type, String number) {
+        if (number == null || number.isBlank())
+            return null;
+        String normalizedType = type != null ? type.trim().toUpperCase(Locale.ROOT) : "";
+        String normalizedNumber = number.replaceAll("[^0-9A-Za-z]", "").toUpperCase(Locale.ROOT);
+        return blindIndex("document:" + normalizedType + ":" + normalizedNumber);
+    }
+
+    private byte[] blindIndex(String value) {
+        try {
+            Mac mac = Mac.getInstance(MAC);
+            mac.init(indexKey);
+            return Arrays.copyOf(mac.doFinal(value.getBytes(StandardCharsets.UTF_8)), INDEX_BYTES);
+        } catch (
+                GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo calcular el índice del pagador", e);
+        }
+    }
+}
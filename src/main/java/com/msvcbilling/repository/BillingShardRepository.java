@@ -0,0 +1,86 @@
+package com.msvcbilling.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Arrendamientos (leases) de shards de cobro recurrente. Un nodo toma un shard con SKIP LOCKED y lo retiene
+ * hasta lease_until; si el nodo muere a mitad de un shard, el lease expira y otro nodo lo retoma.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BillingShardRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Transactional
+    public void ensureShards(int shards) {
+        jdbcTemplate.getJdbcTemplate().execute("""
+                CREATE TABLE IF NOT EXISTS billing_shards (
+                    shard_id integer PRIMARY KEY,
+                    lease_owner varchar(255),
+                    lease_until timestamp(6) with time zone,
+                    completed_at timestamp(6) with time zone
+                )""");
+        jdbcTemplate.update("""
+                        INSERT INTO billing_shards (shard_id)
+                        SELECT generate_series(0, :shards - 1)
+                        ON CONFLICT (shard_id) DO NOTHING""",
+                Map.of("shards", shards));
+    }
+
+    // Toma un shard libre que no se haya completado desde "since"
+    @Transactional
+    public Optional<Integer> claim(int shards, String owner, OffsetDateTime leaseUntil, OffsetDateTime since) {
+        List<Integer> claimed = jdbcTemplate.queryForList("""
+                        UPDATE billing_shards SET lease_owner = :owner, lease_until = :leaseUntil
+                        WHERE shard_id = (
+                            SELECT shard_id FROM billing_shards
+                            WHERE shard_id < :shards
+                              AND (lease_until IS NULL OR lease_until < now())
+                              AND (completed_at IS NULL OR completed_at < :since)
+                            ORDER BY shard_id
+                            LIMIT 1
+                            FOR UPDATE SKIP LOCKED)
+                        RETURNING shard_id""",
+                new MapSqlParameterSource()
+                        .addValue("owner", owner)
+                        .addValue("leaseUntil", leaseUntil)
+                        .addValue("shards", shards)
+                        .addValue("since", since),
+                Integer.class);
+        return claimed.isEmpty() ? Optional.empty() : Optional.of(claimed.get(0));
+    }
+
+    @Transactional
+    public boolean renew(int shard, String owner, OffsetDateTime leaseUntil) {
+        return jdbcTemplate.update("""
+                        UPDATE billing_shards SET lease_until = :leaseUntil
+                        WHERE shard_id = :shard AND lease_owner = :owner""",
+                Map.of("shard", shard, "owner", owner, "leaseUntil", leaseUntil)) == 1;
+    }
+
+    @Transactional
+    public void complete(int shard, String owner) {
+        jdbcTemplate.update("""
+                        UPDATE billing_shards SET lease_until = NULL, lease_owner = NULL, completed_at = now()
+                        WHERE shard_id = :shard AND lease_owner = :owner""",
+                Map.of("shard", shard, "owner", owner));
+    }
+
+    @Transactional
+    public void release(int shard, String owner) {
+        jdbcTemplate.update("""
+                        UPDATE billing_shards SET lease_until = NULL, lease_owner = NULL
+                        WHERE shard_id = :shard AND lease_owner = :owner""",
+                Map.of("shard", shard, "owner", owner));
+    }
+}
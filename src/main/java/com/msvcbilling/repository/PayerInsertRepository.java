@@ -0,0 +1,10 @@
+package com.msvcbilling.repository;
+
+import com.msvcbilling.entities.PayerDocumentEntity;
+import com.msvcbilling.entities.PayerEntity;
+
+public interface PayerInsertRepository {
+    int insertIfAbsent(PayerEntity payer);
+
+    int insertDocumentIfAbsent(PayerDocumentEntity document);
+}
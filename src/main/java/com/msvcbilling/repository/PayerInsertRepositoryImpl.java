@@ -0,0 +1,62 @@
+package com.msvcbilling.repository;
+
+import com.msvcbilling.entities.PayerDocumentEntity;
+import com.msvcbilling.entities.PayerEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.transaction.annotation.Transactional;
+
+// Dos pagos concurrentes del mismo pagador nuevo: uno inserta y el otro no hace nada, sin abortar la transaccion
+public class PayerInsertRepositoryImpl implements PayerInsertRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public int insertIfAbsent(PayerEntity payer) {
+        // Tipos explicitos: un bytea null no se puede inferir desde el valor
+        return entityManager.createNativeQuery("""
+                        INSERT INTO payers (id, tenant_id, email_index, document_index, email, first_name, last_name,
+                                            identification_type, identification_number, date_created)
+                        VALUES (:id, :tenantId, :emailIndex, :documentIndex, :email, :firstName, :lastName,
+                                :identificationType, :identificationNumber, :dateCreated)
+                        ON CONFLICT (tenant_id, email_index) DO NOTHING
+                        """)
+                .unwrap(NativeQuery.class)
+                .setParameter("id", payer.getId())
+                .setParameter("tenantId", payer.getTenantId())
+                .setParameter("emailIndex", payer.getEmailIndex(), StandardBasicTypes.BINARY)
+                .setParameter("documentIndex", payer.getDocumentIndex(), StandardBasicTypes.BINARY)
+                .setParameter("email", payer.getEmail(), StandardBasicTypes.BINARY)
+                .setParameter("firstName", payer.getFirstName(), StandardBasicTypes.BINARY)
+                .setParameter("lastName", payer.getLastName(), StandardBasicTypes.BINARY)
+                .setParameter("identificationType", payer.getIdentificationType(), StandardBasicTypes.STRING)
+                .setParameter("identificationNumber", payer.getIdentificationNumber(), StandardBasicTypes.BINARY)
+                .setParameter("dateCreated", payer.getDateCreated(), StandardBasicTypes.OFFSET_DATE_TIME)
+                .executeUpdate();
+    }
+
+    @Override
+    @Transactional
+    public int insertDocumentIfAbsent(PayerDocumentEntity document) {
+        return entityManager.createNativeQuery("""
+                        INSERT INTO payer_documents (id, tenant_id, payer_id, document_index, identification_type,
+                                                     identification_number, date_created)
+                        VALUES (:id, :tenantId, :payerId, :documentIndex, :identificationType,
+                                :identificationNumber, :dateCreated)
+                        ON CONFLICT (tenant_id, document_index, payer_id) DO NOTHING
+                        """)
+                .unwrap(NativeQuery.class)
+                .setParameter("id", document.getId())
+                .setParameter("tenantId", document.getTenantId())
+                .setParameter("payerId", document.getPayerId())
+                .setParameter("documentIndex", document.getDocumentIndex(), StandardBasicTypes.BINARY)
+                .setParameter("identificationType", document.getIdentificationType(), StandardBasicTypes.STRING)
+                .setParameter("identificationNumber", document.getIdentificationNumber(), StandardBasicTypes.BINARY)
+                .setParameter("dateCreated", document.getDateCreated(), StandardBasicTypes.OFFSET_DATE_TIME)
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,8 @@
+package com.msvcbilling.repository;
+
+import java.util.UUID;
+
+public interface PayerKey {
+    UUID getId();
+    byte[] getDocumentIndex();
+}
@@ -0,0 +1,29 @@
+package com.msvcbilling.repository;
+
+import com.msvcbilling.entities.PayerEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface PayerRepository extends JpaRepository<PayerEntity, UUID>, PayerInsertRepository {
+
+    @Query("select p.id from PayerEntity p where p.tenantId = :tenantId and p.emailIndex = :emailIndex")
+    Optional<UUID> findIdByEmailIndex(@Param("tenantId") String tenantId, @Param("emailIndex") byte[] emailIndex);
+
+    @Query("select p.id as id, p.documentIndex as documentIndex from PayerEntity p "
+            + "where p.tenantId = :tenantId and p.emailIndex = :emailIndex")
+    Optional<PayerKey> findKeyByEmailIndex(@Param("tenantId") String tenantId, @Param("emailIndex") byte[] emailIndex);
+
+    @Query("select p.id from PayerEntity p where p.tenantId = :tenantId and p.documentIndex = :documentIndex")
+    List<UUID> findIdsByDocumentIndex(@Param("tenantId") String tenantId, @Param("documentIndex") byte[] documentIndex);
+
+    @Query("select d.payerId from PayerDocumentEntity d where d.tenantId = :tenantId and d.documentIndex = :documentIndex")
+    List<UUID> findLinkedIdsByDocumentIndex(@Param("tenantId") String tenantId,
+                                            @Param("documentIndex") byte[] documentIndex);
+}
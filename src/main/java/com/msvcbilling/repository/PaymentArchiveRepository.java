@@ -0,0 +1,270 @@
+package com.msvcbilling.repository;
+
+import com.msvcbilling.config.audit.Audit;
+import com.msvcbilling.entities.PaymentEntity;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Tabla de archivo de pagos terminales, particionada por mes sobre date_created.
+ * Se gestiona con SQL nativo (no es una entidad JPA) para que Hibernate no la cree sin particiones.
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class PaymentArchiveRepository {
+
+    private static final String COLUMNS = """
+            id, external_reference, tenant_id, payment_id, payer_id, payment_method_id, payment_type_id, installments,
+            authorization_code, transaction_id, amount, currency_id, status, status_detail,
+            date_created, date_approved, created_by, created_at, updated_by, updated_at, status_reason""";
+
+    // Filas con datos de pagador en claro (columnas antiguas) que LegacyPayerBackfill aun no migro
+    private static final String UNMIGRATED_PAYER = """
+             AND payer_email IS NULL AND payer_first_name IS NULL AND payer_last_name IS NULL
+             AND payer_identification_number IS NULL AND token IS NULL""";
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private static final RowMapper<PaymentEntity> ROW_MAPPER = (rs, rowNum) -> PaymentEntity.builder()
+            .id(rs.getObject("id", UUID.class))
+            .externalReference(rs.getString("external_reference"))
+            .tenantId(rs.getString("tenant_id"))
+            .paymentId(rs.getObject("payment_id", Long.class))
+            .payerId(rs.getObject("payer_id", UUID.class))
+            .paymentMethodId(rs.getString("payment_method_id"))
+            .paymentTypeId(rs.getString("payment_type_id"))
+            .installments(rs.getObject("installments", Integer.class))
+            .authorizationCode(rs.getString("authorization_code"))
+            .transactionId(rs.getString("transaction_id"))
+            .amount(rs.getBigDecimal("amount"))
+            .currencyId(rs.getString("currency_id"))
+            .status(rs.getString("status"))
+            .statusDetail(rs.getString("status_detail"))
+            .dateCreated(rs.getObject("date_created", OffsetDateTime.class))
+            .dateApproved(rs.getObject("date_approved", OffsetDateTime.class))
+            .audit(Audit.builder()
+                    .createdBy(rs.getString("created_by"))
+                    .createdAt(toInstant(rs.getTimestamp("created_at")))
+                    .updatedBy(rs.getString("updated_by"))
+                    .updatedAt(toInstant(rs.getTimestamp("updated_at")))
+                    .statusReason(rs.getString("status_reason"))
+                    .build())
+            .build();
+
+    private static final RowMapper<PaymentReconciliationView> VIEW_MAPPER = (rs, rowNum) -> new ArchivedView(
+            rs.getObject("payment_id", Long.class),
+            rs.getString("external_reference"),
+            rs.getBigDecimal("amount"),
+            rs.getString("status"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public void ensureSchema() {
+        jdbcTemplate.getJdbcTemplate().execute("""
+                CREATE TABLE IF NOT EXISTS payments_archive (
+                    id uuid NOT NULL,
+                    external_reference varchar(255),
+                    tenant_id varchar(255),
+                    payment_id bigint,
+                    payer_id uuid,
+                    payment_method_id varchar(255),
+                    payment_type_id varchar(255),
+                    installments integer,
+                    authorization_code varchar(255),
+                    transaction_id varchar(255),
+                    amount numeric(10, 2),
+                    currency_id varchar(255),
+                    status varchar(255),
+                    status_detail varchar(255),
+                    date_created timestamp(6) with time zone NOT NULL,
+                    date_approved timestamp(6) with time zone,
+                    created_by varchar(255),
+                    created_at timestamp(6) with time zone,
+                    updated_by varchar(255),
+                    updated_at timestamp(6) with time zone,
+                    status_reason varchar(255),
+                    archived_at timestamp(6) with time zone NOT NULL DEFAULT now(),
+                    PRIMARY KEY (id, date_created)
+                ) PARTITION BY RANGE (date_created)""");
+        jdbcTemplate.getJdbcTemplate().execute(
+                "ALTER TABLE payments_archive ADD COLUMN IF NOT EXISTS tenant_id varchar(255)");
+        jdbcTemplate.getJdbcTemplate().execute(
+                "ALTER TABLE payments_archive ADD COLUMN IF NOT EXISTS payer_id uuid");
+        jdbcTemplate.getJdbcTemplate().execute(
+                "CREATE TABLE IF NOT EXISTS payments_archive_default PARTITION OF payments_archive DEFAULT");
+        jdbcTemplate.getJdbcTemplate().execute(
+                "CREATE INDEX IF NOT EXISTS idx_payments_archive_external_reference ON payments_archive (external_reference)");
+        jdbcTemplate.getJdbcTemplate().execute(
+                "CREATE INDEX IF NOT EXISTS idx_payments_archive_payment_id ON payments_archive (payment_id)");
+        jdbcTemplate.getJdbcTemplate().execute(
+                "CREATE INDEX IF NOT EXISTS idx_payments_archive_payer_id ON payments_archive (payer_id)");
+    }
+
+    public void ensurePartition(YearMonth month) {
+        OffsetDateTime from = month.atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC);
+        OffsetDateTime to = from.plusMonths(1);
+        String name = "payments_archive_" + month.format(PARTITION_SUFFIX);
+        jdbcTemplate.getJdbcTemplate().execute("CREATE TABLE IF NOT EXISTS " + name
+                + " PARTITION OF payments_archive FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+    }
+
+    public Optional<OffsetDateTime> findOldestArchivable(Collection<String> statuses, OffsetDateTime cutoff) {
+        OffsetDateTime oldest = jdbcTemplate.queryForObject(
+                "SELECT min(date_created) FROM payments WHERE status IN (:statuses) AND date_created < :cutoff",
+                new MapSqlParameterSource(Map.of("statuses", statuses, "cutoff", cutoff)),
+                OffsetDateTime.class);
+        return Optional.ofNullable(oldest);
+    }
+
+    /**
+     * Mueve un lote de pagos terminales anteriores a {@code cutoff} al archivo en una sola sentencia.
+     * SKIP LOCKED permite que varias instancias archiven en paralelo sin bloquearse.
+     */
+    @Transactional
+    public int archiveBatch(Collection<String> statuses, OffsetDateTime cutoff, int batchSize,
+                            boolean excludeUnmigratedPayers) {
+        return jdbcTemplate.update("""
+                        WITH moved AS (
+                            DELETE FROM payments
+                            WHERE id IN (
+                                SELECT id FROM payments
+                                WHERE status IN (:statuses) AND date_created < :cutoff%2$s
+                                ORDER BY date_created
+                                LIMIT :batchSize
+                                FOR UPDATE SKIP LOCKED)
+                            RETURNING %1$s)
+                        INSERT INTO payments_archive (%1$s)
+                        SELECT %1$s FROM moved
+                        """.formatted(COLUMNS, excludeUnmigratedPayers ? UNMIGRATED_PAYER : ""),
+                new MapSqlParameterSource(Map.of("statuses", statuses, "cutoff", cutoff, "batchSize", batchSize)));
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<PaymentEntity> findByExternalReference(String externalReference) {
+        return first(jdbcTemplate.query("SELECT " + COLUMNS + " FROM payments_archive WHERE external_reference = :ref",
+                Map.of("ref", externalReference), ROW_MAPPER));
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<PaymentEntity> findByPaymentId(Long paymentId) {
+        return first(jdbcTemplate.query("SELECT " + COLUMNS + " FROM payments_archive WHERE payment_id = :paymentId",
+                Map.of("paymentId", paymentId), ROW_MAPPER));
+    }
+
+    /**
+     * Pagos vivos y archivados de los pagadores, del mas reciente al mas antiguo. El archivado mueve cada fila
+     * en una sola sentencia, de modo que un pago nunca aparece en las dos tablas. El orden de pageable se ignora.
+     */
+    @Transactional(readOnly = true)
+    public Page<PaymentEntity> findByPayerIdIn(Collection<UUID> payerIds, Pageable pageable) {
+        List<PaymentEntity> content = jdbcTemplate.query("""
+                        SELECT %1$s FROM payments WHERE payer_id IN (:payerIds)
+                        UNION ALL
+                        SELECT %1$s FROM payments_archive WHERE payer_id IN (:payerIds)
+                        ORDER BY date_created DESC, id
+                        LIMIT :limit OFFSET :offset
+                        """.formatted(COLUMNS),
+                Map.of("payerIds", payerIds, "limit", pageable.getPageSize(), "offset", pageable.getOffset()),
+                ROW_MAPPER);
+        return PageableExecutionUtils.getPage(content, pageable, () -> jdbcTemplate.queryForObject("""
+                        SELECT (SELECT count(*) FROM payments WHERE payer_id IN (:payerIds))
+                             + (SELECT count(*) FROM payments_archive WHERE payer_id IN (:payerIds))
+                        """,
+                Map.of("payerIds", payerIds), Long.class));
+    }
+
+    // Respaldo de la conciliacion: los pagos archivados no deben reportarse como faltantes
+    @Transactional(readOnly = true)
+    public List<PaymentReconciliationView> findViewsByPaymentIdIn(Collection<Long> paymentIds) {
+        return jdbcTemplate.query(
+                "SELECT payment_id, external_reference, amount, status FROM payments_archive WHERE payment_id IN (:ids)",
+                Map.of("ids", paymentIds), VIEW_MAPPER);
+    }
+
+    @Transactional(readOnly = true)
+    public List<PaymentReconciliationView> findViewsByExternalReferenceIn(Collection<String> externalReferences) {
+        return jdbcTemplate.query(
+                "SELECT payment_id, external_reference, amount, status FROM payments_archive WHERE external_reference IN (:refs)",
+                Map.of("refs", externalReferences), VIEW_MAPPER);
+    }
+
+    /**
+     * Actualiza el estado de un pago archivado (devoluciones, contracargos). El archivo no tiene columna de
+     * version: la condicion sobre el estado anterior cumple ese papel y 0 filas indica una escritura concurrente.
+     */
+    @Transactional
+    public int updateStatus(UUID id, String previousStatus, String status, String statusDetail,
+                            String authorizationCode, OffsetDateTime dateApproved) {
+        return jdbcTemplate.update("""
+                        UPDATE payments_archive
+                        SET status = :status,
+                            status_detail = :statusDetail,
+                            authorization_code = coalesce(:authorizationCode, authorization_code),
+                            date_approved = coalesce(date_approved, :dateApproved),
+                            updated_at = now()
+                        WHERE id = :id AND status IS NOT DISTINCT FROM :previousStatus
+                        """,
+                new MapSqlParameterSource()
+                        .addValue("id", id)
+                        .addValue("previousStatus", previousStatus, Types.VARCHAR)
+                        .addValue("status", status, Types.VARCHAR)
+                        .addValue("statusDetail", statusDetail, Types.VARCHAR)
+                        .addValue("authorizationCode", authorizationCode, Types.VARCHAR)
+                        .addValue("dateApproved", dateApproved, Types.TIMESTAMP_WITH_TIMEZONE));
+    }
+
+    private static Optional<PaymentEntity> first(List<PaymentEntity> rows) {
+        return rows.isEmpty() ? Optional.empty() : Optional.of(rows.get(0));
+    }
+
+    private static Instant toInstant(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toInstant() : null;
+    }
+
+    private record ArchivedView(Long paymentId, String externalReference, BigDecimal amount, String status)
+            implements PaymentReconciliationView {
+
+        @Override
+        public Long getPaymentId() {
+            return paymentId;
+        }
+
+        @Override
+        public String getExternalReference() {
+            return externalReference;
+        }
+
+        @Override
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        @Override
+        public String getStatus() {
+            return status;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.msvcbilling.repository;
+
+import com.msvcbilling.entities.PaymentEntity;
+
+import java.util.Optional;
+
+public interface PaymentNaturalIdRepository {
+    Optional<PaymentEntity> findByExternalReference(String externalReference);
+}
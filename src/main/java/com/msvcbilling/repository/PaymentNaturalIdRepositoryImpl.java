@@ -0,0 +1,24 @@
+package com.msvcbilling.repository;
+
+import com.msvcbilling.entities.PaymentEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+// Resuelve por natural id para aprovechar la cache de natural ids y de entidades de Hibernate
+public class PaymentNaturalIdRepositoryImpl implements PaymentNaturalIdRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<PaymentEntity> findByExternalReference(String externalReference) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(PaymentEntity.class)
+                .loadOptional(externalReference);
+    }
+}
@@ -0,0 +1,10 @@
+package com.msvcbilling.repository;
+
+import java.math.BigDecimal;
+
+public interface PaymentReconciliationView {
+    Long getPaymentId();
+    String getExternalReference();
+    BigDecimal getAmount();
+    String getStatus();
+}
@@ -1,16 +1,39 @@
 package com.msvcbilling.repository;
 
 import com.msvcbilling.entities.PaymentEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface PaymentRepository extends JpaRepository<PaymentEntity, UUID> {
-    Optional<PaymentEntity> findByExternalReference(String externalReference);
+public interface PaymentRepository extends JpaRepository<PaymentEntity, UUID>, PaymentNaturalIdRepository {
     Optional<PaymentEntity> findByPaymentId(Long paymentId);
-    Optional<PaymentEntity> findByToken(String token);
+
+    List<PaymentReconciliationView> findByPaymentIdIn(Collection<Long> paymentIds);
+
+    List<PaymentReconciliationView> findByExternalReferenceIn(Collection<String> externalReferences);
+
+    List<PaymentEntity> findAllByExternalReferenceIn(Collection<String> externalReferences);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+            select p.paymentId as paymentId, p.externalReference as externalReference,
+                   p.amount as amount, p.status as status
+            from PaymentEntity p
+            where p.status = 'approved' and p.paymentId is not null
+              and p.dateApproved between :from and :to
+            """)
+    Stream<PaymentReconciliationView> streamApprovedBetween(@Param("from") OffsetDateTime from,
+                                                           @Param("to") OffsetDateTime to);
 }
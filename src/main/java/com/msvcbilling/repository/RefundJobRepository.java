@@ -0,0 +1,15 @@
+package com.msvcbilling.repository;
+
+import com.msvcbilling.entities.RefundJobEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface RefundJobRepository extends JpaRepository<RefundJobEntity, UUID> {
+    Optional<RefundJobEntity> findByTenantIdAndJobKey(String tenantId, String jobKey);
+
+    Optional<RefundJobEntity> findByIdAndTenantId(UUID id, String tenantId);
+}
@@ -0,0 +1,21 @@
+package com.msvcbilling.repository;
+
+import com.msvcbilling.entities.RefundEntity;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface RefundRepository extends JpaRepository<RefundEntity, UUID> {
+    Optional<RefundEntity> findByTenantIdAndRefundKey(String tenantId, String refundKey);
+
+    List<RefundEntity> findByTenantIdAndRefundKeyIn(String tenantId, Collection<String> refundKeys);
+
+    Page<RefundEntity> findByJobIdAndTenantIdAndStatus(UUID jobId, String tenantId, String status, Pageable pageable);
+}
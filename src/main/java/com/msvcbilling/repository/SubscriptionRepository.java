@@ -0,0 +1,36 @@
+package com.msvcbilling.repository;
+
+import com.msvcbilling.entities.SubscriptionEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface SubscriptionRepository extends JpaRepository<SubscriptionEntity, UUID> {
+
+    // El shard se deriva del id para que cualquier servicio pueda insertar suscripciones sin conocer el particionado
+    @Query(value = """
+            SELECT * FROM membership_subscriptions
+            WHERE status = 'ACTIVE' AND coalesce(next_attempt_date, next_charge_date) <= :today
+              AND mod(hashtext(CAST(id AS text))::bigint + 2147483648, :shards) = :shard
+            ORDER BY coalesce(next_attempt_date, next_charge_date)
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<SubscriptionEntity> findDueInShard(@Param("shard") int shard,
+                                            @Param("shards") int shards,
+                                            @Param("today") LocalDate today,
+                                            @Param("limit") int limit);
+
+    // La pagina se cargo fuera de transaccion: precargarla en una consulta evita un SELECT por entidad en merge
+    @Transactional
+    default List<SubscriptionEntity> mergeAll(List<SubscriptionEntity> subscriptions) {
+        findAllById(subscriptions.stream().map(SubscriptionEntity::getId).toList());
+        return saveAll(subscriptions);
+    }
+}
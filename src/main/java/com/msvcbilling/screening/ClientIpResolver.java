@@ -0,0 +1,56 @@
+package com.msvcbilling.screening;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * IP del cliente para el screening. Detras del gateway getRemoteAddr() es la IP del proxy y todos los clientes
+ * compartirian un mismo contador, asi que solo se lee X-Forwarded-For cuando la conexion viene de un proxy
+ * confiable. Se recorre de derecha a izquierda porque los saltos de la izquierda los escribe el propio cliente.
+ */
+@Component
+public class ClientIpResolver {
+
+    // Solo literales IP: IpAddressMatcher resolveria un nombre de host por DNS
+    private static final Pattern IP_LITERAL = Pattern.compile("[0-9a-fA-F:.]+");
+
+    private final String header;
+    private final List<IpAddressMatcher> trustedProxies;
+
+    public ClientIpResolver(ScreeningProperties properties) {
+        this.header = properties.getClientIpHeader();
+        this.trustedProxies = properties.getTrustedProxies().stream().map(IpAddressMatcher::new).toList();
+    }
+
+    // null si la peticion llega de un proxy confiable sin un salto no confiable en la cabecera
+    public String resolve(HttpServletRequest request) {
+        String remote = request.getRemoteAddr();
+        if (!isTrusted(remote))
+            return remote;
+
+        String forwarded = request.getHeader(header);
+        if (forwarded == null)
+            return null;
+        String[] hops = forwarded.split(",");
+        for (int i = hops.length - 1; i >= 0; i--) {
+            String hop = hops[i].trim();
+            if (!hop.isEmpty() && !isTrusted(hop))
+                return hop;
+        }
+        return null;
+    }
+
+    private boolean isTrusted(String address) {
+        if (address == null || !IP_LITERAL.matcher(address).matches())
+            return false;
+        for (IpAddressMatcher proxy : trustedProxies) {
+            if (proxy.matches(address))
+                return true;
+        }
+        return false;
+    }
+}
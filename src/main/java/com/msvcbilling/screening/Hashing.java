@@ -0,0 +1,29 @@
+package com.msvcbilling.screening;
+
+final class Hashing {
+
+    private Hashing() {
+    }
+
+    // FNV-1a de 64 bits con mezcla final (fmix64 de MurmurHash3): barato y sin asignaciones
+    static long hash64(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    // Doble hashing (Kirsch-Mitzenmacher): la i-esima funcion es h1 + i * h2
+    static int index(long hash, int i, int size) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        return ((h1 + i * h2) & Integer.MAX_VALUE) % size;
+    }
+}
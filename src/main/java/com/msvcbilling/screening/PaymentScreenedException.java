@@ -0,0 +1,32 @@
+package com.msvcbilling.screening;
+
+import com.msvcbilling.exceptions.BillingException;
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+@Getter
+public final class PaymentScreenedException extends BillingException {
+
+    private static final Map<ScreeningReason, PaymentScreenedException> BY_REASON = new EnumMap<>(ScreeningReason.class);
+
+    static {
+        for (ScreeningReason reason : ScreeningReason.values())
+            BY_REASON.put(reason, new PaymentScreenedException(reason));
+    }
+
+    private final ScreeningReason reason;
+
+    private PaymentScreenedException(ScreeningReason reason) {
+        super(HttpStatus.TOO_MANY_REQUESTS, "PAYMENT_SCREENED",
+                "Demasiados intentos de pago, intenta nuevamente más tarde");
+        this.reason = reason;
+    }
+
+    // Preasignada por motivo, igual que las demas excepciones de negocio
+    public static PaymentScreenedException of(ScreeningReason reason) {
+        return BY_REASON.get(reason);
+    }
+}
@@ -0,0 +1,102 @@
+package com.msvcbilling.screening;
+
+import com.msvcbilling.dtos.DirectPaymentRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Screening de velocidad previo a Mercado Pago contra card testing: muchos intentos, tokens rotando o montos
+ * pequeños detras del mismo documento, email o IP. Todo en memoria con estructuras de tamaño fijo
+ * (count-min sketch por ventana deslizante y bloom filter rotativo); un rechazo no toca la BD ni el gateway.
+ * Los contadores son por instancia: con N replicas el umbral efectivo por atacante es hasta N veces mayor.
+ * clientIp null (detras de un proxy sin X-Forwarded-For utilizable) omite las reglas por IP.
+ */
+@Component
+public class PaymentScreening {
+
+    private final ScreeningProperties properties;
+    private final SlidingCountMinSketch attempts;
+    private final SlidingCountMinSketch distinctTokens;
+    private final SlidingCountMinSketch smallAmounts;
+    private final RotatingBloomFilter seenTokens;
+    private final Map<ScreeningReason, Counter> rejected = new EnumMap<>(ScreeningReason.class);
+    private final Counter screened;
+
+    public PaymentScreening(ScreeningProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.attempts = sketch(properties);
+        this.distinctTokens = sketch(properties);
+        this.smallAmounts = sketch(properties);
+        this.seenTokens = new RotatingBloomFilter(properties.getWindow(), properties.getBloomBits(), properties.getBloomHashes());
+        for (ScreeningReason reason : ScreeningReason.values()) {
+            rejected.put(reason, Counter.builder("billing.screening.rejected")
+                    .tag("reason", reason.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        this.screened = Counter.builder("billing.screening.screened").register(meterRegistry);
+    }
+
+    public void screen(DirectPaymentRequest request, String clientIp) {
+        if (!properties.isEnabled())
+            return;
+        screened.increment();
+
+        Optional<ScreeningReason> reason = evaluate(request, clientIp);
+        if (reason.isPresent()) {
+            rejected.get(reason.get()).increment();
+            throw PaymentScreenedException.of(reason.get());
+        }
+    }
+
+    private Optional<ScreeningReason> evaluate(DirectPaymentRequest request, String clientIp) {
+        String document = "doc:" + request.identificationType() + ":" + request.identificationNumber();
+        String email = "email:" + (request.payerEmail() != null ? request.payerEmail().toLowerCase() : "");
+        String ip = clientIp != null ? "ip:" + clientIp : null;
+        boolean small = request.amount() != null
+                && request.amount().compareTo(properties.getSmallAmountThreshold()) <= 0;
+
+        // Se registran todas las claves antes de decidir: un atacante bloqueado sigue sumando
+        int documentAttempts = attempts.increment(document);
+        int emailAttempts = attempts.increment(email);
+        int ipAttempts = ip != null ? attempts.increment(ip) : 0;
+
+        int documentTokens = countDistinctToken(document, request.token());
+        int emailTokens = countDistinctToken(email, request.token());
+        int ipTokens = ip != null ? countDistinctToken(ip, request.token()) : 0;
+
+        int documentSmall = small ? smallAmounts.increment(document) : 0;
+        int emailSmall = small ? smallAmounts.increment(email) : 0;
+        int ipSmall = small && ip != null ? smallAmounts.increment(ip) : 0;
+
+        if (Math.max(documentTokens, emailTokens) > properties.getMaxDistinctTokensPerPayer())
+            return Optional.of(ScreeningReason.PAYER_DISTINCT_TOKENS);
+        if (ipTokens > properties.getMaxDistinctTokensPerIp())
+            return Optional.of(ScreeningReason.IP_DISTINCT_TOKENS);
+        if (Math.max(documentSmall, emailSmall) > properties.getMaxSmallAmountsPerPayer())
+            return Optional.of(ScreeningReason.PAYER_SMALL_AMOUNTS);
+        if (ipSmall > properties.getMaxSmallAmountsPerIp())
+            return Optional.of(ScreeningReason.IP_SMALL_AMOUNTS);
+        if (Math.max(documentAttempts, emailAttempts) > properties.getMaxAttemptsPerPayer())
+            return Optional.of(ScreeningReason.PAYER_ATTEMPTS);
+        if (ipAttempts > properties.getMaxAttemptsPerIp())
+            return Optional.of(ScreeningReason.IP_ATTEMPTS);
+        return Optional.empty();
+    }
+
+    // Solo un par (clave, token) nuevo suma al contador de tokens distintos de la clave
+    private int countDistinctToken(String key, String token) {
+        if (seenTokens.addIfAbsent(key + "|" + token))
+            return distinctTokens.increment(key);
+        return distinctTokens.count(key);
+    }
+
+    private static SlidingCountMinSketch sketch(ScreeningProperties properties) {
+        return new SlidingCountMinSketch(properties.getWindow(), properties.getBuckets(),
+                properties.getSketchWidth(), properties.getSketchDepth());
+    }
+}
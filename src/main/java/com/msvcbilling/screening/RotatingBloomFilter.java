@@ -0,0 +1,76 @@
+package com.msvcbilling.screening;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Filtro de Bloom con dos generaciones que rotan cada ventana: recuerda si un par (clave, token) ya se vio
+ * recientemente para contar tokens distintos por pagador sin guardar los tokens.
+ */
+class RotatingBloomFilter {
+
+    private final int bits;
+    private final int hashes;
+    private final long windowNanos;
+    private final LongSupplier clock;
+
+    private volatile AtomicLongArray current;
+    private volatile AtomicLongArray previous;
+    private volatile long generation;
+
+    RotatingBloomFilter(Duration window, int bits, int hashes) {
+        this(window, bits, hashes, System::nanoTime);
+    }
+
+    RotatingBloomFilter(Duration window, int bits, int hashes, LongSupplier clock) {
+        this.clock = clock;
+        this.bits = bits;
+        this.hashes = hashes;
+        this.windowNanos = window.toNanos();
+        this.current = new AtomicLongArray((bits + 63) / 64);
+        this.previous = new AtomicLongArray((bits + 63) / 64);
+        this.generation = clock.getAsLong() / windowNanos;
+    }
+
+    // true si el elemento no estaba en ninguna generacion (con la tasa de falsos positivos del filtro)
+    boolean addIfAbsent(String element) {
+        rotateIfNeeded();
+        long hash = Hashing.hash64(element);
+        AtomicLongArray active = current;
+        boolean seen = contains(active, hash) || contains(previous, hash);
+        for (int i = 0; i < hashes; i++) {
+            int bit = Hashing.index(hash, i, bits);
+            int word = bit >>> 6;
+            long mask = 1L << (bit & 63);
+            long value;
+            while (((value = active.get(word)) & mask) == 0 && !active.compareAndSet(word, value, value | mask)) {
+                // reintento CAS
+            }
+        }
+        return !seen;
+    }
+
+    private boolean contains(AtomicLongArray filter, long hash) {
+        for (int i = 0; i < hashes; i++) {
+            int bit = Hashing.index(hash, i, bits);
+            if ((filter.get(bit >>> 6) & (1L << (bit & 63))) == 0)
+                return false;
+        }
+        return true;
+    }
+
+    private void rotateIfNeeded() {
+        long now = clock.getAsLong() / windowNanos;
+        if (now == generation)
+            return;
+        synchronized (this) {
+            if (now == generation)
+                return;
+            // Mas de una ventana sin trafico: ambas generaciones estan vencidas
+            previous = now - generation == 1 ? current : new AtomicLongArray(previous.length());
+            current = new AtomicLongArray(previous.length());
+            generation = now;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.msvcbilling.screening;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Reglas de velocidad para el checkout. Los umbrales aplican por documento, email e IP dentro de la ventana.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "billing.screening")
+public class ScreeningProperties {
+
+    private boolean enabled = true;
+    private Duration window = Duration.ofMinutes(10);
+    private int buckets = 5;
+
+    private int maxAttemptsPerPayer = 20;
+    private int maxAttemptsPerIp = 40;
+    private int maxDistinctTokensPerPayer = 5;
+    private int maxDistinctTokensPerIp = 10;
+    private BigDecimal smallAmountThreshold = new BigDecimal("5.00");
+    private int maxSmallAmountsPerPayer = 5;
+    private int maxSmallAmountsPerIp = 10;
+
+    // Memoria fija: buckets x depth x width enteros por sketch (3 sketches) y 2 x bloom-bits bits
+    private int sketchWidth = 8192;
+    private int sketchDepth = 4;
+    private int bloomBits = 1 << 22;
+    private int bloomHashes = 4;
+
+    // Proxies (gateway, ingress) cuya X-Forwarded-For es confiable. La IP del cliente es el primer salto
+    // no confiable desde la derecha; si no se puede determinar no se aplican las reglas por IP
+    private String clientIpHeader = "X-Forwarded-For";
+    private List<String> trustedProxies = List.of(
+            "10.0.0.0/8", "172.16.0.0/12", "192.168.0.0/16", "127.0.0.1/32", "::1/128");
+}
@@ -0,0 +1,10 @@
+package com.msvcbilling.screening;
+
+public enum ScreeningReason {
+    PAYER_ATTEMPTS,
+    IP_ATTEMPTS,
+    PAYER_DISTINCT_TOKENS,
+    IP_DISTINCT_TOKENS,
+    PAYER_SMALL_AMOUNTS,
+    IP_SMALL_AMOUNTS
+}
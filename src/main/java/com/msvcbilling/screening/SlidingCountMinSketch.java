@@ -0,0 +1,79 @@
+package com.msvcbilling.screening;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Contador aproximado por clave sobre una ventana deslizante: un count-min sketch por sub-ventana,
+ * rotados en anillo. La memoria es fija (buckets x depth x width enteros) sin importar cuantas claves
+ * distintas lleguen; el error solo sobreestima, nunca subestima.
+ */
+class SlidingCountMinSketch {
+
+    private final int width;
+    private final int depth;
+    private final long bucketNanos;
+    private final AtomicIntegerArray[] buckets;
+    private final AtomicLongArray bucketEpochs;
+    private final LongSupplier clock;
+
+    SlidingCountMinSketch(Duration window, int bucketCount, int width, int depth) {
+        this(window, bucketCount, width, depth, System::nanoTime);
+    }
+
+    SlidingCountMinSketch(Duration window, int bucketCount, int width, int depth, LongSupplier clock) {
+        this.clock = clock;
+        this.width = width;
+        this.depth = depth;
+        this.bucketNanos = window.toNanos() / bucketCount;
+        this.buckets = new AtomicIntegerArray[bucketCount];
+        this.bucketEpochs = new AtomicLongArray(bucketCount);
+        for (int i = 0; i < bucketCount; i++)
+            buckets[i] = new AtomicIntegerArray(width * depth);
+    }
+
+    // Suma la ocurrencia y devuelve la estimacion de la ventana completa
+    int increment(String key) {
+        long hash = Hashing.hash64(key);
+        long epoch = clock.getAsLong() / bucketNanos;
+        AtomicIntegerArray current = bucketFor(epoch);
+        for (int row = 0; row < depth; row++)
+            current.incrementAndGet(row * width + Hashing.index(hash, row, width));
+        return estimate(hash, epoch);
+    }
+
+    int count(String key) {
+        return estimate(Hashing.hash64(key), clock.getAsLong() / bucketNanos);
+    }
+
+    private int estimate(long hash, long epoch) {
+        int total = 0;
+        for (int b = 0; b < buckets.length; b++) {
+            if (epoch - bucketEpochs.get(b) >= buckets.length)
+                continue;
+            int min = Integer.MAX_VALUE;
+            for (int row = 0; row < depth; row++)
+                min = Math.min(min, buckets[b].get(row * width + Hashing.index(hash, row, width)));
+            total += min;
+        }
+        return total;
+    }
+
+    // Al entrar en una sub-ventana nueva se vacia el bucket que ocupaba la mas antigua
+    private AtomicIntegerArray bucketFor(long epoch) {
+        int slot = (int) Math.floorMod(epoch, (long) buckets.length);
+        if (bucketEpochs.get(slot) != epoch) {
+            synchronized (buckets[slot]) {
+                if (bucketEpochs.get(slot) != epoch) {
+                    AtomicIntegerArray bucket = buckets[slot];
+                    for (int i = 0; i < bucket.length(); i++)
+                        bucket.set(i, 0);
+                    bucketEpochs.set(slot, epoch);
+                }
+            }
+        }
+        return buckets[slot];
+    }
+}
@@ -0,0 +1,18 @@
+package com.msvcbilling.services;
+
+import com.msvcbilling.dtos.PaymentResponse;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.UUID;
+
+public interface PayerService {
+
+    // Id del pagador del tenant con ese email; lo registra cifrado si es nuevo y asocia documentos nuevos
+    UUID resolvePayerId(String tenantId, String email, String firstName, String lastName,
+                        String identificationType, String identificationNumber);
+
+    // Busqueda por blind index: email, documento o ambos (union de resultados), incluidos pagos archivados
+    Page<PaymentResponse> findPayments(String email, String identificationType, String identificationNumber,
+                                       Pageable pageable);
+}
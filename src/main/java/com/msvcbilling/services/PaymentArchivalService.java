@@ -0,0 +1,7 @@
+package com.msvcbilling.services;
+
+public interface PaymentArchivalService {
+
+    // Mueve al archivo los pagos terminales fuera de la ventana de retencion, retorna la cantidad archivada
+    int archiveTerminalPayments();
+}
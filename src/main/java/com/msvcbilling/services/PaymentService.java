@@ -4,14 +4,24 @@ import com.mercadopago.resources.payment.Payment;
 import com.msvcbilling.dtos.*;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface PaymentService {
 
 
     PaymentResponse processDirectPayment(DirectPaymentRequest request) throws Exception;
 
+    // Cobro recurrente: cada intento genera un token nuevo, asi que la clave de idempotencia sale solo de la referencia
+    PaymentResponse processRecurringPayment(DirectPaymentRequest request) throws Exception;
+
+    // Pago ya creado con esa referencia, local o en Mercado Pago (se registra localmente si solo existe alla)
+    Optional<PaymentResponse> findCreatedPayment(String externalReference) throws Exception;
+
     PaymentResponse getPaymentStatus(String externalReference) throws Exception;
 
+    // Estado guardado localmente (pagos vivos o archivados), sin consultar a Mercado Pago
+    PaymentResponse getLocalPaymentStatus(String externalReference);
+
     List<String> getPaymentMethods() throws Exception;
 
     // Método para actualizar desde webhooks
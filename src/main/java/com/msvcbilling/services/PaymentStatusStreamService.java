@@ -0,0 +1,10 @@
+package com.msvcbilling.services;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface PaymentStatusStreamService {
+
+    SseEmitter subscribe(String externalReference) throws Exception;
+
+    int activeSubscriptions();
+}
@@ -0,0 +1,9 @@
+package com.msvcbilling.services;
+
+import com.msvcbilling.dtos.ReconciliationRequest;
+import com.msvcbilling.dtos.ReconciliationSummary;
+
+public interface ReconciliationService {
+
+    ReconciliationSummary reconcile(ReconciliationRequest request) throws Exception;
+}
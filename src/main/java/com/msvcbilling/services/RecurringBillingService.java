@@ -0,0 +1,7 @@
+package com.msvcbilling.services;
+
+public interface RecurringBillingService {
+
+    // Procesa los shards disponibles y retorna la cantidad de cobros intentados por este nodo
+    int chargeDueSubscriptions();
+}
@@ -0,0 +1,22 @@
+package com.msvcbilling.services;
+
+import com.msvcbilling.dtos.BulkRefundRequest;
+import com.msvcbilling.dtos.RefundJobResponse;
+import com.msvcbilling.dtos.RefundRequest;
+import com.msvcbilling.dtos.RefundResponse;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.UUID;
+
+public interface RefundService {
+
+    RefundResponse refund(RefundRequest request) throws Exception;
+
+    // Registra el proceso y lo ejecuta en segundo plano; reenviar la misma clave devuelve el proceso existente
+    RefundJobResponse submitBulk(BulkRefundRequest request);
+
+    RefundJobResponse getJob(UUID jobId);
+
+    Page<RefundResponse> getJobItems(UUID jobId, String status, Pageable pageable);
+}
@@ -0,0 +1,101 @@
+package com.msvcbilling.services.impl;
+
+import com.msvcbilling.dtos.PaymentResponse;
+import com.msvcbilling.entities.PayerDocumentEntity;
+import com.msvcbilling.entities.PayerEntity;
+import com.msvcbilling.mappers.PaymentMapper;
+import com.msvcbilling.pii.PiiCipher;
+import com.msvcbilling.repository.PayerKey;
+import com.msvcbilling.repository.PayerRepository;
+import com.msvcbilling.repository.PaymentArchiveRepository;
+import com.msvcbilling.services.PayerService;
+import com.msvcbilling.tenant.TenantContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PayerServiceImpl implements PayerService {
+
+    private final PayerRepository payerRepository;
+    private final PaymentArchiveRepository paymentArchiveRepository;
+    private final PaymentMapper paymentMapper;
+    private final PiiCipher piiCipher;
+
+    @Transactional
+    @Override
+    public UUID resolvePayerId(String tenantId, String email, String firstName, String lastName,
+                               String identificationType, String identificationNumber) {
+        byte[] emailIndex = piiCipher.emailIndex(email);
+        if (emailIndex == null)
+            return null;
+
+        byte[] documentIndex = piiCipher.documentIndex(identificationType, identificationNumber);
+
+        // Pagador conocido: una sola consulta por indice, sin descifrar nada
+        Optional<PayerKey> known = payerRepository.findKeyByEmailIndex(tenantId, emailIndex);
+        PayerKey payer = known.orElseGet(() -> {
+            payerRepository.insertIfAbsent(PayerEntity.builder()
+                    .id(UUID.randomUUID())
+                    .tenantId(tenantId)
+                    .emailIndex(emailIndex)
+                    .documentIndex(documentIndex)
+                    .email(piiCipher.encrypt(email.trim()))
+                    .firstName(piiCipher.encrypt(firstName))
+                    .lastName(piiCipher.encrypt(lastName))
+                    .identificationType(identificationType)
+                    .identificationNumber(piiCipher.encrypt(identificationNumber))
+                    .dateCreated(OffsetDateTime.now(ZoneOffset.UTC))
+                    .build());
+            return payerRepository.findKeyByEmailIndex(tenantId, emailIndex).orElseThrow();
+        });
+
+        // Mismo email con otro documento: se asocia para que la busqueda por documento encuentre este pago
+        if (documentIndex != null && !Arrays.equals(documentIndex, payer.getDocumentIndex()))
+            payerRepository.insertDocumentIfAbsent(PayerDocumentEntity.builder()
+                    .id(UUID.randomUUID())
+                    .tenantId(tenantId)
+                    .payerId(payer.getId())
+                    .documentIndex(documentIndex)
+                    .identificationType(identificationType)
+                    .identificationNumber(piiCipher.encrypt(identificationNumber))
+                    .dateCreated(OffsetDateTime.now(ZoneOffset.UTC))
+                    .build());
+        return payer.getId();
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Page<PaymentResponse> findPayments(String email, String identificationType, String identificationNumber,
+                                              Pageable pageable) {
+        String tenantId = TenantContext.current();
+        Set<UUID> payerIds = new LinkedHashSet<>();
+
+        byte[] emailIndex = piiCipher.emailIndex(email);
+        if (emailIndex != null)
+            payerRepository.findIdByEmailIndex(tenantId, emailIndex).ifPresent(payerIds::add);
+
+        byte[] documentIndex = piiCipher.documentIndex(identificationType, identificationNumber);
+        if (documentIndex != null) {
+            payerIds.addAll(payerRepository.findIdsByDocumentIndex(tenantId, documentIndex));
+            payerIds.addAll(payerRepository.findLinkedIdsByDocumentIndex(tenantId, documentIndex));
+        }
+
+        if (payerIds.isEmpty())
+            return Page.empty(pageable);
+        return paymentArchiveRepository.findByPayerIdIn(payerIds, pageable).map(paymentMapper::entityToResponse);
+    }
+}
@@ -0,0 +1,117 @@
+package com.msvcbilling.services.impl;
+
+import com.msvcbilling.entities.PaymentEntity;
+import com.msvcbilling.entities.PaymentStatus;
+import com.msvcbilling.pii.LegacyPayerBackfill;
+import com.msvcbilling.repository.PaymentArchiveRepository;
+import com.msvcbilling.services.PaymentArchivalService;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentArchivalServiceImpl implements PaymentArchivalService {
+
+    private final PaymentArchiveRepository paymentArchiveRepository;
+    private final EntityManagerFactory entityManagerFactory;
+    private final LegacyPayerBackfill legacyPayerBackfill;
+
+    @Value("${billing.archival.enabled:true}")
+    private boolean enabled;
+
+    @Value("${billing.archival.retention:P365D}")
+    private Duration retention;
+
+    @Value("${billing.archival.batch-size:500}")
+    private int batchSize;
+
+    @Value("${billing.archival.max-batches-per-run:200}")
+    private int maxBatchesPerRun;
+
+    private volatile boolean schemaReady;
+
+    // Las busquedas de respaldo sobre el archivo necesitan la tabla aunque el job aun no haya corrido
+    @EventListener(ApplicationReadyEvent.class)
+    public void initArchiveSchema() {
+        try {
+            ensureSchema();
+        } catch (
+                Exception e) {
+            log.warn("No se pudo preparar la tabla de archivo de pagos: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${billing.archival.initial-delay:PT5M}",
+            fixedDelayString = "${billing.archival.interval:PT1H}")
+    public void scheduledArchival() {
+        if (!enabled)
+            return;
+        try {
+            archiveTerminalPayments();
+        } catch (
+                Exception e) {
+            log.warn("Error archivando pagos terminales: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public int archiveTerminalPayments() {
+        ensureSchema();
+        // Una fila aun no migrada a payers perderia sus datos de pagador al archivarse
+        if (!legacyPayerBackfill.isComplete()) {
+            log.info("Archivado pospuesto: la migración de datos de pagador no ha terminado");
+            return 0;
+        }
+
+        List<String> statuses = PaymentStatus.terminalValues();
+        OffsetDateTime cutoff = OffsetDateTime.now(ZoneOffset.UTC).minus(retention);
+
+        var oldest = paymentArchiveRepository.findOldestArchivable(statuses, cutoff);
+        if (oldest.isEmpty())
+            return 0;
+
+        YearMonth month = YearMonth.from(oldest.get().withOffsetSameInstant(ZoneOffset.UTC));
+        YearMonth last = YearMonth.from(cutoff);
+        while (!month.isAfter(last)) {
+            paymentArchiveRepository.ensurePartition(month);
+            month = month.plusMonths(1);
+        }
+
+        // Las instancias viejas pueden seguir escribiendo en claro: esas filas esperan a la siguiente migracion
+        boolean excludeUnmigrated = legacyPayerBackfill.hasLegacyColumns();
+        int total = 0;
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            int moved = paymentArchiveRepository.archiveBatch(statuses, cutoff, batchSize, excludeUnmigrated);
+            total += moved;
+            if (moved < batchSize)
+                break;
+        }
+
+        // El borrado nativo no pasa por Hibernate: invalidar la cache de segundo nivel de pagos
+        if (total > 0)
+            entityManagerFactory.getCache().evict(PaymentEntity.class);
+
+        log.info("Pagos terminales archivados: {} (anteriores a {})", total, cutoff);
+        return total;
+    }
+
+    private void ensureSchema() {
+        if (!schemaReady) {
+            paymentArchiveRepository.ensureSchema();
+            schemaReady = true;
+        }
+    }
+}
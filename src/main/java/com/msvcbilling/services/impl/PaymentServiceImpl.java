@@ -1,23 +1,46 @@
 package com.msvcbilling.services.impl;
 
 import com.mercadopago.client.common.IdentificationRequest;
-import com.mercadopago.client.payment.PaymentClient;
 import com.mercadopago.client.payment.PaymentCreateRequest;
 import com.mercadopago.client.payment.PaymentPayerRequest;
-import com.mercadopago.client.paymentmethod.PaymentMethodClient;
 import com.mercadopago.core.MPRequestOptions;
 import com.mercadopago.resources.payment.Payment;
+import com.mercadopago.resources.payment.PaymentPayer;
 import com.mercadopago.resources.paymentmethod.PaymentMethod;
+import com.msvcbilling.config.datasource.DataSourceRouting;
+import com.msvcbilling.config.datasource.ReplicaLagGuard;
 import com.msvcbilling.dtos.*;
 import com.msvcbilling.entities.PaymentEntity;
+import com.msvcbilling.entities.PaymentStatus;
+import com.msvcbilling.events.PaymentStatusChangedEvent;
+import com.msvcbilling.exceptions.BillingException;
+import com.msvcbilling.exceptions.ConcurrencyLimitExceededException;
+import com.msvcbilling.exceptions.DuplicatePaymentException;
+import com.msvcbilling.exceptions.PaymentDeclinedException;
+import com.msvcbilling.exceptions.PaymentNotFoundException;
+import com.msvcbilling.gateway.MercadoPagoGateway;
+import com.msvcbilling.jfr.IdempotentReplayEvent;
+import com.msvcbilling.jfr.PaymentProcessedEvent;
+import com.msvcbilling.jfr.PaymentUpdateEvent;
+import com.msvcbilling.jfr.StatusRefreshEvent;
 import com.msvcbilling.mappers.PaymentMapper;
+import com.msvcbilling.repository.PaymentArchiveRepository;
 import com.msvcbilling.repository.PaymentRepository;
+import com.msvcbilling.services.PayerService;
 import com.msvcbilling.services.PaymentService;
+import com.msvcbilling.tenant.TenantContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.*;
@@ -29,28 +52,114 @@ import java.util.stream.Collectors;
 public class PaymentServiceImpl implements PaymentService {
 
     private final PaymentRepository paymentRepository;
-    private final PaymentClient paymentClient;
-    private final PaymentMethodClient paymentMethodClient;
+    private final PaymentArchiveRepository paymentArchiveRepository;
+    private final MercadoPagoGateway mercadoPagoGateway;
     private final PaymentMapper paymentMapper;
+    private final ReplicaLagGuard replicaLagGuard;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PlatformTransactionManager transactionManager;
+    private final PayerService payerService;
+
+    @Value("${billing.payments.update-max-attempts:3}")
+    private int updateMaxAttempts;
 
     @Transactional
     @Override
     public PaymentResponse processDirectPayment(DirectPaymentRequest request) throws Exception {
-        log.info("🔄 Procesando pago directo para referencia: {}", request.externalReference());
+        // Clave por referencia y token: un reintento identico no genera un segundo cobro, y un token nuevo
+        // tras un rechazo no recibe el error que Mercado Pago cacheo para la clave anterior
+        return processPayment(request, idempotencyKey(request.externalReference() + ":" + request.token()));
+    }
+
+    @Transactional
+    @Override
+    public PaymentResponse processRecurringPayment(DirectPaymentRequest request) throws Exception {
+        return processPayment(request, idempotencyKey(request.externalReference()));
+    }
+
+    private PaymentResponse processPayment(DirectPaymentRequest request, String idempotencyKey) throws Exception {
+        PaymentProcessedEvent processedEvent = new PaymentProcessedEvent();
+        processedEvent.begin();
+        String outcome = "error";
+        String status = null;
+        try {
+            // Verificar idempotencia (incluye pagos archivados)
+            Optional<PaymentEntity> existing = findExistingPayment(request.externalReference());
+            if (existing.isPresent()) {
+                // Misma referencia con otro monto: no es un reintento sino una referencia reutilizada
+                if (existing.get().getAmount() != null && request.amount() != null
+                        && existing.get().getAmount().compareTo(request.amount()) != 0) {
+                    outcome = "duplicate";
+                    throw DuplicatePaymentException.INSTANCE;
+                }
+                outcome = "replayed";
+                status = existing.get().getStatus();
+                return paymentMapper.entityToResponse(existing.get());
+            }
 
-        // Verificar idempotencia
-        Optional<PaymentEntity> existing = paymentRepository.findByExternalReference(request.externalReference());
+            PaymentResponse response = createPayment(request, idempotencyKey);
+            outcome = "created";
+            status = response.status();
+            return response;
+        } finally {
+            processedEvent.end();
+            if (processedEvent.shouldCommit()) {
+                processedEvent.externalReference = request.externalReference();
+                processedEvent.status = status;
+                processedEvent.outcome = outcome;
+                processedEvent.commit();
+            }
+        }
+    }
+
+    private Optional<PaymentEntity> findExistingPayment(String externalReference) {
+        IdempotentReplayEvent replayEvent = new IdempotentReplayEvent();
+        replayEvent.begin();
+        Optional<PaymentEntity> existing = findIncludingArchive(externalReference);
         if (existing.isPresent()) {
-            PaymentEntity existingPayment = existing.get();
-            log.info("♻️ Pago ya existe, retornando existente: {}", existingPayment.getPaymentId());
-            return paymentMapper.entityToResponse(existingPayment);
+            log.debug("Pago ya existe, retornando existente: {}", existing.get().getPaymentId());
+            replayEvent.end();
+            if (replayEvent.shouldCommit()) {
+                replayEvent.externalReference = externalReference;
+                replayEvent.status = existing.get().getStatus();
+                replayEvent.commit();
+            }
         }
+        return existing;
+    }
 
-        try {
-            // Log de datos que enviamos (sin datos sensibles)
-            log.info("💳 Creando pago - Monto: {}, Email: {}, Método: {}",
-                    request.amount(), request.payerEmail(), request.paymentMethodId());
+    @Override
+    public Optional<PaymentResponse> findCreatedPayment(String externalReference) throws Exception {
+        Optional<PaymentEntity> existing = findIncludingArchive(externalReference);
+        if (existing.isPresent())
+            return existing.map(paymentMapper::entityToResponse);
+
+        Optional<Payment> created = mercadoPagoGateway.searchPayments(externalReference).stream()
+                .filter(payment -> payment.getId() != null)
+                .findFirst();
+        if (created.isEmpty())
+            return Optional.empty();
+
+        Payment payment = created.get();
+        log.info("Pago recuperado de Mercado Pago. Referencia: {}, ID: {}, Status: {}",
+                externalReference, payment.getId(), payment.getStatus());
+        PaymentPayer payer = payment.getPayer();
+        UUID payerId = payer == null ? null : payerService.resolvePayerId(TenantContext.current(), payer.getEmail(),
+                payer.getFirstName(), payer.getLastName(),
+                payer.getIdentification() != null ? payer.getIdentification().getType() : null,
+                payer.getIdentification() != null ? payer.getIdentification().getNumber() : null);
+        PaymentEntity paymentEntity = toEntity(payment, externalReference, payerId);
+        paymentRepository.save(paymentEntity);
+        replicaLagGuard.recordWrite(externalReference);
+        return Optional.of(paymentMapper.entityToResponse(paymentEntity));
+    }
 
+    private PaymentResponse createPayment(DirectPaymentRequest request, String idempotencyKey) throws Exception {
+        // Antes del cobro: un fallo al guardar el pagador no deja un pago cobrado en Mercado Pago sin registro local
+        UUID payerId = payerService.resolvePayerId(TenantContext.current(), request.payerEmail(),
+                request.payerFirstName(), request.payerLastName(),
+                request.identificationType(), request.identificationNumber());
+        try {
             IdentificationRequest identification = IdentificationRequest.builder()
                     .type(request.identificationType())
                     .number(request.identificationNumber())
@@ -74,92 +183,101 @@ public class PaymentServiceImpl implements PaymentService {
                     .build();
 
             Map<String, String> headers = new HashMap<>();
-            headers.put("x-idempotency-key", UUID.randomUUID().toString());
+            headers.put("x-idempotency-key", idempotencyKey);
             MPRequestOptions options = MPRequestOptions.builder()
                     .customHeaders(headers)
                     .build();
 
-            log.info("🚀 Enviando request a Mercado Pago...");
-            Payment payment = paymentClient.create(paymentRequest, options);
+            Payment payment = mercadoPagoGateway.createPayment(paymentRequest, options);
 
-            log.info("✅ Pago creado en Mercado Pago. ID: {}, Status: {}", payment.getId(), payment.getStatus());
-
-            // ... resto del código igual ...
-            PaymentEntity paymentEntity = PaymentEntity.builder()
-                    .id(UUID.randomUUID())
-                    .externalReference(request.externalReference())
-                    .paymentId(payment.getId())
-                    .token(request.token())
-                    .paymentMethodId(payment.getPaymentMethodId())
-                    .paymentTypeId(payment.getPaymentTypeId())
-                    .installments(payment.getInstallments())
-                    .authorizationCode(payment.getAuthorizationCode())
-                    .transactionId(payment.getId().toString())
-                    .amount(payment.getTransactionAmount())
-                    .currencyId(payment.getCurrencyId())
-                    .status(payment.getStatus())
-                    .statusDetail(payment.getStatusDetail())
-                    .payerEmail(request.payerEmail())
-                    .payerFirstName(request.payerFirstName())
-                    .payerLastName(request.payerLastName())
-                    .payerIdentificationType(request.identificationType())
-                    .payerIdentificationNumber(request.identificationNumber())
-                    .dateCreated(payment.getDateCreated() != null ?
-                            OffsetDateTime.ofInstant(payment.getDateCreated().toInstant(), ZoneOffset.UTC) : OffsetDateTime.now())
-                    .dateApproved(payment.getDateApproved() != null ?
-                            OffsetDateTime.ofInstant(payment.getDateApproved().toInstant(), ZoneOffset.UTC) : null)
-                    .build();
+            log.info("Pago creado en Mercado Pago. Referencia: {}, ID: {}, Status: {}",
+                    request.externalReference(), payment.getId(), payment.getStatus());
 
+            PaymentEntity paymentEntity = toEntity(payment, request.externalReference(), payerId);
             paymentRepository.save(paymentEntity);
+            replicaLagGuard.recordWrite(paymentEntity.getExternalReference());
             return paymentMapper.entityToResponse(paymentEntity);
 
         } catch (
                 com.mercadopago.exceptions.MPApiException mpEx) {
-            log.error("❌ Error específico de Mercado Pago:");
-            log.error("📄 Status Code: {}", mpEx.getStatusCode());
-            log.error("📄 Message: {}", mpEx.getMessage());
-
-            // Intentar obtener detalles de la respuesta
-            try {
-                if (mpEx.getApiResponse() != null) {
-                    log.error("📄 API Response: {}", mpEx.getApiResponse().getContent());
-                }
-            } catch (
-                    Exception e) {
-                log.warn("No se pudo obtener detalles de la respuesta de MP");
+            String content = mpEx.getApiResponse() != null ? mpEx.getApiResponse().getContent() : null;
+            // 4xx (salvo 429): datos de tarjeta o pago invalidos, es un resultado esperado y no un fallo del servicio
+            if (mpEx.getStatusCode() >= 400 && mpEx.getStatusCode() < 500 && mpEx.getStatusCode() != 429) {
+                log.info("Mercado Pago rechazó el pago para referencia {}. Status Code: {}, API Response: {}",
+                        request.externalReference(), mpEx.getStatusCode(), content);
+                throw PaymentDeclinedException.INSTANCE;
             }
+            log.error("Error de Mercado Pago para referencia {}. Status Code: {}, Message: {}, API Response: {}",
+                    request.externalReference(), mpEx.getStatusCode(), mpEx.getMessage(), content);
 
             throw mpEx;
+        } catch (
+                BillingException ex) {
+            throw ex;
         } catch (
                 Exception ex) {
-            log.error("❌ Error general procesando pago: {}", ex.getMessage(), ex);
+            log.error("Error general procesando pago: {}", ex.getMessage(), ex);
             throw ex;
         }
     }
 
-    @Transactional
+    @Override
+    public PaymentResponse getLocalPaymentStatus(String externalReference) {
+        return replicaLagGuard.read(externalReference, () -> findIncludingArchive(externalReference))
+                .map(paymentMapper::entityToResponse)
+                .orElseThrow(() -> PaymentNotFoundException.INSTANCE);
+    }
+
+    // Sin transaccion propia: las lecturas van en transacciones readOnly (replica) y no se retiene
+    // una conexion durante la consulta a Mercado Pago
     @Override
     public PaymentResponse getPaymentStatus(String externalReference) {
-        log.info("Consultando estado de pago para referencia: {}", externalReference);
+        log.debug("Consultando estado de pago para referencia: {}", externalReference);
 
-        Optional<PaymentEntity> paymentOpt = paymentRepository.findByExternalReference(externalReference);
+        Optional<PaymentEntity> paymentOpt = replicaLagGuard.read(externalReference,
+                () -> paymentRepository.findByExternalReference(externalReference));
         if (paymentOpt.isEmpty()) {
-            throw new RuntimeException("Pago no encontrado para la referencia: " + externalReference);
+            // Los pagos archivados son terminales, no hace falta refrescarlos contra Mercado Pago
+            return paymentArchiveRepository.findByExternalReference(externalReference)
+                    .map(paymentMapper::entityToResponse)
+                    .orElseThrow(() -> PaymentNotFoundException.INSTANCE);
         }
 
         PaymentEntity paymentEntity = paymentOpt.get();
 
         if (paymentEntity.getPaymentId() != null) {
-            try {
-                Payment mpPayment = paymentClient.get(paymentEntity.getPaymentId());
+            StatusRefreshEvent refreshEvent = new StatusRefreshEvent();
+            refreshEvent.begin();
+            String previousStatus = paymentEntity.getStatus();
+            String outcome = "unchanged";
+            // Se consulta con las credenciales del tenant que creo el pago, tambien desde procesos en segundo plano
+            try (TenantContext.Scope scope = TenantContext.open(paymentEntity.getTenantId())) {
+                Payment mpPayment = mercadoPagoGateway.getPayment(paymentEntity.getPaymentId());
                 if (mpPayment != null && !Objects.equals(paymentEntity.getStatus(), mpPayment.getStatus())) {
-                    updatePaymentFromMpPayment(mpPayment);
-                    paymentEntity = paymentRepository.findByExternalReference(externalReference).orElse(paymentEntity);
+                    PaymentEntity current = paymentEntity;
+                    paymentEntity = DataSourceRouting.onPrimary(() -> {
+                        updatePaymentFromMpPayment(mpPayment);
+                        return paymentRepository.findByExternalReference(externalReference).orElse(current);
+                    });
+                    outcome = "changed";
                 }
+            } catch (
+                    ConcurrencyLimitExceededException e) {
+                // Refresco descartado por saturacion: se responde con el estado local
+                outcome = "shed";
             } catch (
                     Exception e) {
+                outcome = "error";
                 log.warn("Error consultando estado en Mercado Pago: {}", e.getMessage());
             }
+            refreshEvent.end();
+            if (refreshEvent.shouldCommit()) {
+                refreshEvent.externalReference = externalReference;
+                refreshEvent.previousStatus = previousStatus;
+                refreshEvent.currentStatus = paymentEntity.getStatus();
+                refreshEvent.outcome = outcome;
+                refreshEvent.commit();
+            }
         }
 
         return paymentMapper.entityToResponse(paymentEntity);
@@ -167,10 +285,10 @@ public class PaymentServiceImpl implements PaymentService {
 
     @Override
     public List<String> getPaymentMethods() {
-        log.info("Consultando métodos de pago disponibles");
+        log.debug("Consultando métodos de pago disponibles");
 
         try {
-            var response = paymentMethodClient.list();
+            var response = mercadoPagoGateway.listPaymentMethods();
             if (response != null && response.getResults() != null) {
                 return response.getResults().stream()
                         .filter(pm -> "credit_card".equals(pm.getPaymentTypeId()) ||
@@ -187,16 +305,40 @@ public class PaymentServiceImpl implements PaymentService {
     }
 
 
+    // Actualizacion optimista: cada intento corre en su propia transaccion y @Version detecta a otro actualizador
+    // (webhook vs refresco) que confirmo antes; en ese caso se relee y se reintenta sin bloquear la fila
     @Override
     public void updatePaymentFromMpPayment(Payment payment) {
         if (payment == null)
             return;
 
-        log.info("Actualizando pago desde webhook. Payment ID: {}", payment.getId());
+        log.debug("Actualizando pago desde webhook. Payment ID: {}", payment.getId());
+
+        PaymentUpdateEvent updateEvent = new PaymentUpdateEvent();
+        updateEvent.begin();
 
-        String extRef = payment.getExternalReference();
         String status = payment.getStatus() != null ? payment.getStatus() : "unknown";
 
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                String outcome = transaction.execute(tx -> applyMpPayment(payment, status));
+                commitUpdateEvent(updateEvent, payment, status, outcome);
+                return;
+            } catch (
+                    OptimisticLockingFailureException e) {
+                if (attempt >= updateMaxAttempts) {
+                    commitUpdateEvent(updateEvent, payment, status, "conflict");
+                    throw e;
+                }
+                log.debug("Conflicto de versión actualizando pago {}, intento {}", payment.getId(), attempt);
+            }
+        }
+    }
+
+    private String applyMpPayment(Payment payment, String status) {
+        String extRef = payment.getExternalReference();
         Optional<PaymentEntity> localOpt = Optional.empty();
 
         if (payment.getId() != null) {
@@ -207,21 +349,126 @@ public class PaymentServiceImpl implements PaymentService {
             localOpt = paymentRepository.findByExternalReference(extRef);
         }
 
-        if (localOpt.isPresent()) {
-            PaymentEntity local = localOpt.get();
-            local.setStatus(status);
-            local.setStatusDetail(payment.getStatusDetail());
-            local.setAuthorizationCode(payment.getAuthorizationCode());
+        if (localOpt.isEmpty())
+            return applyMpPaymentToArchive(payment, status);
 
-            if (payment.getDateApproved() != null && local.getDateApproved() == null) {
-                local.setDateApproved(OffsetDateTime.ofInstant(payment.getDateApproved().toInstant(), ZoneOffset.UTC));
-            }
+        PaymentEntity local = localOpt.get();
+        String previousStatus = local.getStatus();
+        // Una notificacion atrasada (p. ej. pending despues de approved) no hace retroceder el pago
+        if (!PaymentStatus.canTransition(previousStatus, status)) {
+            log.debug("Se ignora el estado {} para {}: el pago ya está en {}",
+                    status, local.getExternalReference(), previousStatus);
+            return "stale";
+        }
+
+        local.setStatus(status);
+        local.setStatusDetail(payment.getStatusDetail());
+        local.setAuthorizationCode(payment.getAuthorizationCode());
+
+        if (payment.getDateApproved() != null && local.getDateApproved() == null) {
+            local.setDateApproved(OffsetDateTime.ofInstant(payment.getDateApproved().toInstant(), ZoneOffset.UTC));
+        }
+
+        paymentRepository.save(local);
+        replicaLagGuard.recordWrite(local.getExternalReference());
+        log.info("Pago actualizado exitosamente. Nuevo estado: {}", status);
+
+        if (!Objects.equals(previousStatus, status)) {
+            eventPublisher.publishEvent(new PaymentStatusChangedEvent(
+                    local.getExternalReference(), previousStatus, paymentMapper.entityToResponse(local)));
+        }
+        return "updated";
+    }
+
+    // Un pago archivado sigue recibiendo devoluciones y contracargos: se actualiza la fila del archivo
+    private String applyMpPaymentToArchive(Payment payment, String status) {
+        String extRef = payment.getExternalReference();
+        Optional<PaymentEntity> archivedOpt = Optional.empty();
+
+        if (payment.getId() != null) {
+            archivedOpt = paymentArchiveRepository.findByPaymentId(payment.getId());
+        }
+
+        if (archivedOpt.isEmpty() && extRef != null) {
+            archivedOpt = paymentArchiveRepository.findByExternalReference(extRef);
+        }
 
-            paymentRepository.save(local);
-            log.info("Pago actualizado exitosamente. Nuevo estado: {}", status);
-        } else {
+        if (archivedOpt.isEmpty()) {
             log.warn("No se encontró pago local para Payment ID: {} y External Reference: {}",
                     payment.getId(), extRef);
+            return "not_found";
+        }
+
+        PaymentEntity archived = archivedOpt.get();
+        String previousStatus = archived.getStatus();
+        if (!PaymentStatus.canTransition(previousStatus, status)) {
+            log.debug("Se ignora el estado {} para {} archivado: el pago ya está en {}",
+                    status, archived.getExternalReference(), previousStatus);
+            return "stale";
+        }
+
+        OffsetDateTime dateApproved = payment.getDateApproved() != null
+                ? OffsetDateTime.ofInstant(payment.getDateApproved().toInstant(), ZoneOffset.UTC) : null;
+        int updated = paymentArchiveRepository.updateStatus(archived.getId(), previousStatus, status,
+                payment.getStatusDetail(), payment.getAuthorizationCode(), dateApproved);
+        if (updated == 0)
+            throw new OptimisticLockingFailureException(
+                    "El pago archivado " + archived.getExternalReference() + " cambió durante la actualización");
+
+        archived.setStatus(status);
+        archived.setStatusDetail(payment.getStatusDetail());
+        if (archived.getDateApproved() == null)
+            archived.setDateApproved(dateApproved);
+        log.info("Pago archivado actualizado. Referencia: {}, nuevo estado: {}", archived.getExternalReference(), status);
+
+        if (!Objects.equals(previousStatus, status)) {
+            eventPublisher.publishEvent(new PaymentStatusChangedEvent(
+                    archived.getExternalReference(), previousStatus, paymentMapper.entityToResponse(archived)));
         }
+        return "updated";
+    }
+
+    private static void commitUpdateEvent(PaymentUpdateEvent event, Payment payment, String status, String outcome) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.paymentId = payment.getId() != null ? payment.getId() : 0L;
+            event.externalReference = payment.getExternalReference();
+            event.status = status;
+            event.outcome = outcome;
+            event.commit();
+        }
+    }
+
+    private Optional<PaymentEntity> findIncludingArchive(String externalReference) {
+        Optional<PaymentEntity> payment = paymentRepository.findByExternalReference(externalReference);
+        return payment.isPresent() ? payment : paymentArchiveRepository.findByExternalReference(externalReference);
+    }
+
+    private static String idempotencyKey(String value) {
+        return UUID.nameUUIDFromBytes(("msvc-billing:" + value)
+                .getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    private static PaymentEntity toEntity(Payment payment, String externalReference, UUID payerId) {
+        return PaymentEntity.builder()
+                .id(UUID.randomUUID())
+                .externalReference(externalReference)
+                .tenantId(TenantContext.current())
+                .paymentId(payment.getId())
+                .payerId(payerId)
+                .paymentMethodId(payment.getPaymentMethodId())
+                .paymentTypeId(payment.getPaymentTypeId())
+                .installments(payment.getInstallments())
+                .authorizationCode(payment.getAuthorizationCode())
+                .transactionId(payment.getId().toString())
+                .amount(payment.getTransactionAmount())
+                .currencyId(payment.getCurrencyId())
+                .status(payment.getStatus())
+                .statusDetail(payment.getStatusDetail())
+                .dateCreated(payment.getDateCreated() != null ?
+                        OffsetDateTime.ofInstant(payment.getDateCreated().toInstant(), ZoneOffset.UTC) : OffsetDateTime.now())
+                .dateApproved(payment.getDateApproved() != null ?
+                        OffsetDateTime.ofInstant(payment.getDateApproved().toInstant(), ZoneOffset.UTC) : null)
+                .build();
     }
 }
\ No newline at end of file
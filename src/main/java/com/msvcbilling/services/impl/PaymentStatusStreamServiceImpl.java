@@ -0,0 +1,236 @@
+package com.msvcbilling.services.impl;
+
+import com.msvcbilling.dtos.PaymentResponse;
+import com.msvcbilling.entities.PaymentStatus;
+import com.msvcbilling.events.PaymentStatusChangedEvent;
+import com.msvcbilling.services.PaymentService;
+import com.msvcbilling.services.PaymentStatusStreamService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Registro en memoria de suscriptores SSE por referencia externa. Los emisores no retienen hilos:
+ * se completan desde el evento de cambio de estado o desde el refresco periodico, que se hace una sola vez
+ * por referencia sin importar cuantos clientes esten esperando.
+ * El refresco lee la fila local y compara con el ultimo estado enviado: un cambio guardado por otra instancia
+ * o por un webhook no publica evento en este nodo y aun asi debe llegar a los suscriptores locales.
+ * Solo las referencias que siguen sin estado terminal tras poll-after se consultan en Mercado Pago, con
+ * espera creciente por referencia, para que la carga no crezca con el numero de suscripciones abiertas.
+ */
+@Service
+@Slf4j
+public class PaymentStatusStreamServiceImpl implements PaymentStatusStreamService {
+
+    private final PaymentService paymentService;
+    private final Map<String, Set<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    private final Map<String, String> lastPushed = new ConcurrentHashMap<>();
+    private final Map<String, RemotePoll> remotePolls = new ConcurrentHashMap<>();
+    private final AtomicInteger active = new AtomicInteger();
+    private final long timeoutMillis;
+    private final int refreshConcurrency;
+    private final long pollAfterNanos;
+    private final long pollMaxBackoffNanos;
+
+    public PaymentStatusStreamServiceImpl(
+            PaymentService paymentService,
+            MeterRegistry meterRegistry,
+            @Value("${billing.status-stream.timeout:PT2M}") Duration timeout,
+            @Value("${billing.status-stream.refresh-concurrency:32}") int refreshConcurrency,
+            @Value("${billing.status-stream.poll-after:PT30S}") Duration pollAfter,
+            @Value("${billing.status-stream.poll-max-backoff:PT2M}") Duration pollMaxBackoff) {
+        this.paymentService = paymentService;
+        this.timeoutMillis = timeout.toMillis();
+        this.refreshConcurrency = refreshConcurrency;
+        this.pollAfterNanos = pollAfter.toNanos();
+        this.pollMaxBackoffNanos = Math.max(pollMaxBackoff.toNanos(), pollAfterNanos);
+        Gauge.builder("billing.status.stream.subscribers", active, AtomicInteger::get)
+                .description("Clientes esperando un cambio de estado de pago")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public SseEmitter subscribe(String externalReference) throws Exception {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        // Registrar antes de leer: un cambio entre la lectura y el registro no se pierde
+        register(externalReference, emitter);
+        PaymentResponse current;
+        try {
+            current = paymentService.getPaymentStatus(externalReference);
+        } catch (
+                Exception e) {
+            unregister(externalReference, emitter);
+            throw e;
+        }
+
+        if (PaymentStatus.isTerminal(current.status())) {
+            unregister(externalReference, emitter);
+            send(emitter, current);
+            emitter.complete();
+            return emitter;
+        }
+
+        lastPushed.putIfAbsent(externalReference, fingerprint(current));
+        if (!send(emitter, current))
+            unregister(externalReference, emitter);
+        return emitter;
+    }
+
+    @Override
+    public int activeSubscriptions() {
+        return active.get();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPaymentStatusChanged(PaymentStatusChangedEvent event) {
+        push(event.externalReference(), event.payment());
+    }
+
+    private void push(String externalReference, PaymentResponse payment) {
+        if (!subscribers.containsKey(externalReference))
+            return;
+        String fingerprint = fingerprint(payment);
+        String previous = lastPushed.put(externalReference, fingerprint);
+        if (fingerprint.equals(previous))
+            return;
+
+        boolean terminal = PaymentStatus.isTerminal(payment.status());
+        Set<SseEmitter> emitters = terminal
+                ? subscribers.remove(externalReference)
+                : subscribers.get(externalReference);
+        if (terminal) {
+            lastPushed.remove(externalReference);
+            remotePolls.remove(externalReference);
+        }
+        if (emitters == null)
+            return;
+
+        for (SseEmitter emitter : emitters) {
+            boolean sent = send(emitter, payment);
+            if (terminal || !sent) {
+                if (emitters.remove(emitter))
+                    active.decrementAndGet();
+                if (sent)
+                    emitter.complete();
+            }
+        }
+    }
+
+    // Refresca solo las referencias que tienen clientes esperando y envia el estado si difiere
+    // del ultimo enviado desde este nodo
+    @Scheduled(fixedDelayString = "${billing.status-stream.refresh-interval:PT5S}")
+    public void refreshSubscribedPayments() {
+        if (subscribers.isEmpty())
+            return;
+
+        List<String> references = List.copyOf(subscribers.keySet());
+        Semaphore permits = new Semaphore(refreshConcurrency);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String reference : references) {
+                permits.acquireUninterruptibly();
+                executor.submit(() -> {
+                    try {
+                        refresh(reference);
+                    } catch (
+                            Exception e) {
+                        log.debug("No se pudo refrescar el estado de {}: {}", reference, e.getMessage());
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+    }
+
+    private void refresh(String reference) throws Exception {
+        PaymentResponse local = paymentService.getLocalPaymentStatus(reference);
+        push(reference, local);
+        if (PaymentStatus.isTerminal(local.status()))
+            return;
+
+        RemotePoll poll = remotePolls.get(reference);
+        if (poll == null || !poll.due(System.nanoTime()))
+            return;
+        try {
+            push(reference, paymentService.getPaymentStatus(reference));
+        } finally {
+            poll.backOff(System.nanoTime(), pollMaxBackoffNanos);
+        }
+    }
+
+    private void register(String externalReference, SseEmitter emitter) {
+        subscribers.computeIfAbsent(externalReference, k -> ConcurrentHashMap.newKeySet()).add(emitter);
+        remotePolls.computeIfAbsent(externalReference, k -> new RemotePoll(System.nanoTime() + pollAfterNanos,
+                pollAfterNanos));
+        active.incrementAndGet();
+        Runnable cleanup = () -> unregister(externalReference, emitter);
+        emitter.onCompletion(cleanup);
+        emitter.onTimeout(() -> {
+            cleanup.run();
+            emitter.complete();
+        });
+        emitter.onError(e -> cleanup.run());
+    }
+
+    private void unregister(String externalReference, SseEmitter emitter) {
+        Set<SseEmitter> emitters = subscribers.get(externalReference);
+        if (emitters == null)
+            return;
+        if (emitters.remove(emitter))
+            active.decrementAndGet();
+        if (emitters.isEmpty() && subscribers.remove(externalReference, emitters)) {
+            lastPushed.remove(externalReference);
+            remotePolls.remove(externalReference);
+        }
+    }
+
+    private static String fingerprint(PaymentResponse payment) {
+        return payment.status() + "|" + payment.statusDetail();
+    }
+
+    // Proxima consulta a Mercado Pago de una referencia; la espera se duplica tras cada consulta
+    private static final class RemotePoll {
+        private volatile long nextNanos;
+        private volatile long backoffNanos;
+
+        RemotePoll(long nextNanos, long backoffNanos) {
+            this.nextNanos = nextNanos;
+            this.backoffNanos = backoffNanos;
+        }
+
+        boolean due(long now) {
+            return now - nextNanos >= 0;
+        }
+
+        void backOff(long now, long maxBackoffNanos) {
+            backoffNanos = Math.min(backoffNanos * 2, maxBackoffNanos);
+            nextNanos = now + backoffNanos;
+        }
+    }
+
+    private boolean send(SseEmitter emitter, PaymentResponse payment) {
+        try {
+            emitter.send(SseEmitter.event().name("status").data(payment));
+            return true;
+        } catch (
+                IOException | IllegalStateException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,458 @@
+package com.msvcbilling.services.impl;
+
+import com.msvcbilling.dtos.ReconciliationRequest;
+import com.msvcbilling.dtos.ReconciliationSummary;
+import com.msvcbilling.repository.PaymentArchiveRepository;
+import com.msvcbilling.repository.PaymentReconciliationView;
+import com.msvcbilling.repository.PaymentRepository;
+import com.msvcbilling.services.ReconciliationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Concilia un reporte de liquidaciones de Mercado Pago (CSV) contra la tabla payments.
+ * El reporte se lee en streaming y se procesa por bloques en paralelo; la memoria queda acotada por
+ * el tamaño y la cantidad de bloques en vuelo. Solo la verificacion inversa (pagos aprobados que no
+ * aparecen en el reporte) guarda los payment_id vistos, 8 bytes por fila.
+ * Una fila mal formada se reporta como MALFORMED_ROW y no interrumpe la corrida.
+ */
+@Service
+@Slf4j
+public class ReconciliationServiceImpl implements ReconciliationService {
+
+    private static final String COL_SOURCE_ID = "SOURCE_ID";
+    private static final String COL_EXTERNAL_REFERENCE = "EXTERNAL_REFERENCE";
+    private static final String COL_TRANSACTION_TYPE = "TRANSACTION_TYPE";
+    private static final String COL_TRANSACTION_AMOUNT = "TRANSACTION_AMOUNT";
+    private static final String COL_TRANSACTION_DATE = "TRANSACTION_DATE";
+
+    private static final String TYPE_SETTLEMENT = "SETTLEMENT";
+
+    // Estados locales aceptados para cada tipo de movimiento del reporte
+    private static final Map<String, Set<String>> EXPECTED_STATUSES = Map.of(
+            TYPE_SETTLEMENT, Set.of("approved", "in_mediation", "refunded", "charged_back"),
+            "REFUND", Set.of("refunded"),
+            "CHARGEBACK", Set.of("charged_back"));
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentArchiveRepository paymentArchiveRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Path baseDirectory;
+    private final int chunkSize;
+    private final int parallelism;
+    private final char separator;
+
+    public ReconciliationServiceImpl(
+            PaymentRepository paymentRepository,
+            PaymentArchiveRepository paymentArchiveRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${billing.reconciliation.directory:/tmp/reconciliation}") String directory,
+            @Value("${billing.reconciliation.chunk-size:2000}") int chunkSize,
+            @Value("${billing.reconciliation.parallelism:0}") int parallelism,
+            @Value("${billing.reconciliation.separator:,}") char separator) {
+        this.paymentRepository = paymentRepository;
+        this.paymentArchiveRepository = paymentArchiveRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.baseDirectory = Path.of(directory).toAbsolutePath().normalize();
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.separator = separator;
+    }
+
+    @Override
+    public ReconciliationSummary reconcile(ReconciliationRequest request) throws Exception {
+        long start = System.nanoTime();
+        Path report = resolve(request.reportFile());
+        Path output = resolve(request.outputFile());
+        if (!Files.isRegularFile(report))
+            throw new IllegalArgumentException("No existe el reporte: " + request.reportFile());
+
+        Counters counters = new Counters();
+        SeenPaymentIds seen = request.checkMissingInReport() ? new SeenPaymentIds() : null;
+        DateRange range = new DateRange();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        int maxInFlight = parallelism * 2;
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+
+        try (BufferedReader reader = Files.newBufferedReader(report, StandardCharsets.UTF_8);
+             DiscrepancyWriter writer = new DiscrepancyWriter(Files.newBufferedWriter(output, StandardCharsets.UTF_8))) {
+
+            String header = reader.readLine();
+            if (header == null)
+                throw new IllegalArgumentException("El reporte está vacío: " + request.reportFile());
+            ReportColumns columns = ReportColumns.from(split(header, separator));
+
+            List<ReportRow> chunk = new ArrayList<>(chunkSize);
+            String line;
+            long lineNumber = 1;
+            while ((line = reader.readLine()) != null && failure.get() == null) {
+                lineNumber++;
+                if (line.isBlank())
+                    continue;
+                counters.rowsRead.increment();
+                try {
+                    chunk.add(columns.toRow(split(line, separator)));
+                } catch (
+                        NumberFormatException | ArithmeticException e) {
+                    counters.malformedRows.increment();
+                    writer.writeMalformed(lineNumber, e.getMessage());
+                    continue;
+                }
+                if (chunk.size() == chunkSize) {
+                    submit(executor, inFlight, chunk, writer, counters, seen, range, failure);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty())
+                submit(executor, inFlight, chunk, writer, counters, seen, range, failure);
+
+            // Esperar a que terminen todos los bloques en vuelo
+            inFlight.acquire(maxInFlight);
+            if (failure.get() != null)
+                throw new IllegalStateException("Error procesando el reporte: " + failure.get().getMessage(), failure.get());
+
+            if (seen != null && range.from != null)
+                checkMissingInReport(seen.sorted(), range, writer, counters);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        ReconciliationSummary summary = new ReconciliationSummary(
+                report.toString(),
+                output.toString(),
+                counters.rowsRead.sum(),
+                counters.rowsMatched.sum(),
+                counters.missingLocal.sum(),
+                counters.amountMismatches.sum(),
+                counters.statusMismatches.sum(),
+                counters.missingInReport.sum(),
+                counters.malformedRows.sum(),
+                (System.nanoTime() - start) / 1_000_000);
+        log.info("Conciliación finalizada: {}", summary);
+        return summary;
+    }
+
+    private void submit(ExecutorService executor, Semaphore inFlight, List<ReportRow> chunk, DiscrepancyWriter writer,
+                        Counters counters, SeenPaymentIds seen, DateRange range,
+                        AtomicReference<Throwable> failure) throws InterruptedException {
+        inFlight.acquire();
+        executor.execute(() -> {
+            try {
+                processChunk(chunk, writer, counters, seen, range);
+            } catch (
+                    Throwable t) {
+                failure.compareAndSet(null, t);
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    private void processChunk(List<ReportRow> rows, DiscrepancyWriter writer, Counters counters,
+                              SeenPaymentIds seen, DateRange range) {
+        Set<Long> paymentIds = new HashSet<>();
+        Set<String> references = new HashSet<>();
+        for (ReportRow row : rows) {
+            if (row.paymentId() != null)
+                paymentIds.add(row.paymentId());
+            else if (row.externalReference() != null)
+                references.add(row.externalReference());
+        }
+
+        Map<Long, PaymentReconciliationView> byPaymentId = paymentIds.isEmpty() ? Map.of()
+                : paymentRepository.findByPaymentIdIn(paymentIds).stream()
+                .collect(Collectors.toMap(PaymentReconciliationView::getPaymentId, Function.identity(), (a, b) -> a));
+        Map<String, PaymentReconciliationView> byReference = references.isEmpty() ? Map.of()
+                : paymentRepository.findByExternalReferenceIn(references).stream()
+                .collect(Collectors.toMap(PaymentReconciliationView::getExternalReference, Function.identity(), (a, b) -> a));
+        byPaymentId = withArchived(byPaymentId, paymentIds, PaymentReconciliationView::getPaymentId,
+                paymentArchiveRepository::findViewsByPaymentIdIn);
+        byReference = withArchived(byReference, references, PaymentReconciliationView::getExternalReference,
+                paymentArchiveRepository::findViewsByExternalReferenceIn);
+
+        long[] matchedIds = new long[rows.size()];
+        int matched = 0;
+        OffsetDateTime min = null;
+        OffsetDateTime max = null;
+
+        for (ReportRow row : rows) {
+            if (row.date() != null) {
+                min = min == null || row.date().isBefore(min) ? row.date() : min;
+                max = max == null || row.date().isAfter(max) ? row.date() : max;
+            }
+
+            PaymentReconciliationView local = row.paymentId() != null
+                    ? byPaymentId.get(row.paymentId())
+                    : byReference.get(row.externalReference());
+            if (local == null) {
+                counters.missingLocal.increment();
+                writer.write(DiscrepancyType.MISSING_LOCAL, row, null);
+                continue;
+            }
+
+            counters.rowsMatched.increment();
+            if (local.getPaymentId() != null)
+                matchedIds[matched++] = local.getPaymentId();
+
+            Set<String> expected = EXPECTED_STATUSES.get(row.transactionType());
+            if (expected != null && !expected.contains(local.getStatus())) {
+                counters.statusMismatches.increment();
+                writer.write(DiscrepancyType.STATUS_MISMATCH, row, local);
+            }
+            if (TYPE_SETTLEMENT.equals(row.transactionType()) && row.amount() != null && local.getAmount() != null
+                    && row.amount().abs().compareTo(local.getAmount()) != 0) {
+                counters.amountMismatches.increment();
+                writer.write(DiscrepancyType.AMOUNT_MISMATCH, row, local);
+            }
+        }
+
+        if (seen != null)
+            seen.addAll(matchedIds, matched);
+        range.include(min, max);
+    }
+
+    // Solo las claves que no estan en payments se buscan en el archivo
+    private static <K> Map<K, PaymentReconciliationView> withArchived(
+            Map<K, PaymentReconciliationView> live, Set<K> keys, Function<PaymentReconciliationView, K> key,
+            Function<Set<K>, List<PaymentReconciliationView>> archiveLookup) {
+        Set<K> missing = new HashSet<>(keys);
+        missing.removeAll(live.keySet());
+        if (missing.isEmpty())
+            return live;
+        Map<K, PaymentReconciliationView> merged = new HashMap<>(live);
+        for (PaymentReconciliationView archived : archiveLookup.apply(missing))
+            merged.putIfAbsent(key.apply(archived), archived);
+        return merged;
+    }
+
+    private void checkMissingInReport(long[] seenIds, DateRange range, DiscrepancyWriter writer, Counters counters) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<PaymentReconciliationView> payments = paymentRepository.streamApprovedBetween(range.from, range.to)) {
+                payments.forEach(local -> {
+                    if (Arrays.binarySearch(seenIds, local.getPaymentId()) < 0) {
+                        counters.missingInReport.increment();
+                        writer.write(DiscrepancyType.MISSING_IN_REPORT, null, local);
+                    }
+                });
+            }
+        });
+    }
+
+    private Path resolve(String file) {
+        Path path = baseDirectory.resolve(file).normalize();
+        if (!path.startsWith(baseDirectory))
+            throw new IllegalArgumentException("Ruta fuera del directorio de conciliación: " + file);
+        return path;
+    }
+
+    // Separador CSV con soporte de campos entre comillas (sin saltos de linea dentro de campos)
+    static List<String> split(String line, char separator) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == separator) {
+                fields.add(current.toString().trim());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString().trim());
+        return fields;
+    }
+
+    private enum DiscrepancyType {
+        MISSING_LOCAL, AMOUNT_MISMATCH, STATUS_MISMATCH, MISSING_IN_REPORT, MALFORMED_ROW
+    }
+
+    private record ReportRow(
+            Long paymentId,
+            String externalReference,
+            String transactionType,
+            BigDecimal amount,
+            OffsetDateTime date
+    ) {}
+
+    private record ReportColumns(int sourceId, int externalReference, int transactionType, int amount, int date) {
+
+        static ReportColumns from(List<String> header) {
+            Map<String, Integer> index = new HashMap<>();
+            for (int i = 0; i < header.size(); i++)
+                index.put(header.get(i).toUpperCase(Locale.ROOT), i);
+
+            int sourceId = index.getOrDefault(COL_SOURCE_ID, -1);
+            int externalReference = index.getOrDefault(COL_EXTERNAL_REFERENCE, -1);
+            int transactionType = index.getOrDefault(COL_TRANSACTION_TYPE, -1);
+            int amount = index.getOrDefault(COL_TRANSACTION_AMOUNT, -1);
+            if ((sourceId < 0 && externalReference < 0) || transactionType < 0 || amount < 0)
+                throw new IllegalArgumentException("El reporte no contiene las columnas requeridas: "
+                        + List.of(COL_SOURCE_ID + "|" + COL_EXTERNAL_REFERENCE, COL_TRANSACTION_TYPE, COL_TRANSACTION_AMOUNT));
+            return new ReportColumns(sourceId, externalReference, transactionType, amount,
+                    index.getOrDefault(COL_TRANSACTION_DATE, -1));
+        }
+
+        ReportRow toRow(List<String> fields) {
+            String source = field(fields, sourceId);
+            String amountValue = field(fields, amount);
+            return new ReportRow(
+                    source != null ? Long.valueOf(source) : null,
+                    field(fields, externalReference),
+                    Optional.ofNullable(field(fields, transactionType)).map(t -> t.toUpperCase(Locale.ROOT)).orElse(null),
+                    amountValue != null ? new BigDecimal(amountValue) : null,
+                    parseDate(field(fields, date)));
+        }
+
+        private static String field(List<String> fields, int index) {
+            if (index < 0 || index >= fields.size())
+                return null;
+            String value = fields.get(index);
+            return value.isEmpty() ? null : value;
+        }
+
+        private static OffsetDateTime parseDate(String value) {
+            if (value == null)
+                return null;
+            try {
+                return OffsetDateTime.parse(value);
+            } catch (
+                    DateTimeParseException e) {
+                return null;
+            }
+        }
+    }
+
+    private static final class Counters {
+        final LongAdder rowsRead = new LongAdder();
+        final LongAdder rowsMatched = new LongAdder();
+        final LongAdder missingLocal = new LongAdder();
+        final LongAdder amountMismatches = new LongAdder();
+        final LongAdder statusMismatches = new LongAdder();
+        final LongAdder missingInReport = new LongAdder();
+        final LongAdder malformedRows = new LongAdder();
+    }
+
+    private static final class DateRange {
+        private OffsetDateTime from;
+        private OffsetDateTime to;
+
+        synchronized void include(OffsetDateTime min, OffsetDateTime max) {
+            if (min != null && (from == null || min.isBefore(from)))
+                from = min;
+            if (max != null && (to == null || max.isAfter(to)))
+                to = max;
+        }
+    }
+
+    private static final class SeenPaymentIds {
+        private long[] ids = new long[1 << 16];
+        private int size;
+
+        synchronized void addAll(long[] values, int count) {
+            if (size + count > ids.length)
+                ids = Arrays.copyOf(ids, Math.max(ids.length * 2, size + count));
+            System.arraycopy(values, 0, ids, size, count);
+            size += count;
+        }
+
+        synchronized long[] sorted() {
+            long[] result = Arrays.copyOf(ids, size);
+            Arrays.sort(result);
+            return result;
+        }
+    }
+
+    private static final class DiscrepancyWriter implements AutoCloseable {
+        private final BufferedWriter writer;
+
+        DiscrepancyWriter(BufferedWriter writer) throws IOException {
+            this.writer = writer;
+            writer.write("type,payment_id,external_reference,transaction_type,report_amount,local_amount,local_status,detail");
+            writer.newLine();
+        }
+
+        synchronized void write(DiscrepancyType type, ReportRow row, PaymentReconciliationView local) {
+            try {
+                writer.write(String.join(",",
+                        value(type),
+                        value(row != null ? row.paymentId() : local.getPaymentId()),
+                        value(row != null ? row.externalReference() : local.getExternalReference()),
+                        value(row != null ? row.transactionType() : null),
+                        value(row != null ? row.amount() : null),
+                        value(local != null ? local.getAmount() : null),
+                        value(local != null ? local.getStatus() : null),
+                        ""));
+                writer.newLine();
+            } catch (
+                    IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        synchronized void writeMalformed(long lineNumber, String message) {
+            try {
+                String detail = "linea " + lineNumber + ": " + (message != null ? message : "valor inválido");
+                writer.write(DiscrepancyType.MALFORMED_ROW.name() + ",,,,,,," + value(detail));
+                writer.newLine();
+            } catch (
+                    IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        // RFC 4180: campos con separador, comillas o saltos de linea van entre comillas, con las comillas duplicadas
+        private static String value(Object value) {
+            if (value == null)
+                return "";
+            String text = value.toString();
+            if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0)
+                return text;
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package com.msvcbilling.services.impl;
+
+import com.mercadopago.client.cardtoken.CardTokenRequest;
+import com.mercadopago.exceptions.MPApiException;
+import com.mercadopago.resources.CardToken;
+import com.msvcbilling.dtos.DirectPaymentRequest;
+import com.msvcbilling.dtos.PaymentResponse;
+import com.msvcbilling.entities.PaymentStatus;
+import com.msvcbilling.entities.SubscriptionEntity;
+import com.msvcbilling.exceptions.ConcurrencyLimitExceededException;
+import com.msvcbilling.exceptions.DuplicatePaymentException;
+import com.msvcbilling.exceptions.PaymentDeclinedException;
+import com.msvcbilling.gateway.MercadoPagoGateway;
+import com.msvcbilling.repository.BillingShardRepository;
+import com.msvcbilling.repository.SubscriptionRepository;
+import com.msvcbilling.services.PaymentService;
+import com.msvcbilling.services.RecurringBillingService;
+import com.msvcbilling.tenant.TenantContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Queue;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Cobro recurrente de membresias. Los shards se reparten entre todas las instancias mediante leases en BD;
+ * cada shard cobra sus suscripciones vencidas en paralelo y persiste los resultados por pagina.
+ * La referencia externa es deterministica por suscripcion, periodo e intento, de modo que si un nodo
+ * muere a mitad de un shard el nodo que lo retoma encuentra el pago ya creado: antes de cada cobro se busca
+ * la referencia en local y en Mercado Pago, y la clave de idempotencia se deriva solo de ella.
+ * El intento solo avanza ante un rechazo definitivo; con un resultado incierto (timeout, 5xx) se conserva
+ * la referencia para el siguiente ciclo.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RecurringBillingServiceImpl implements RecurringBillingService {
+
+    private static final DateTimeFormatter PERIOD = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final Set<String> FAILED_STATUSES = Set.of(
+            PaymentStatus.REJECTED.getValue(), PaymentStatus.CANCELLED.getValue());
+
+    private static final String PAST_DUE = "PAST_DUE";
+
+    private final SubscriptionRepository subscriptionRepository;
+    private final BillingShardRepository billingShardRepository;
+    private final PaymentService paymentService;
+    private final MercadoPagoGateway mercadoPagoGateway;
+    private final String owner = "billing-" + UUID.randomUUID();
+
+    @Value("${billing.recurring.enabled:true}")
+    private boolean enabled;
+
+    @Value("${billing.recurring.shards:16}")
+    private int shards;
+
+    @Value("${billing.recurring.concurrency:16}")
+    private int concurrency;
+
+    @Value("${billing.recurring.page-size:200}")
+    private int pageSize;
+
+    @Value("${billing.recurring.lease:PT5M}")
+    private Duration lease;
+
+    @Value("${billing.recurring.interval:PT15M}")
+    private Duration interval;
+
+    @Value("${billing.recurring.retry-delay-days:1}")
+    private int retryDelayDays;
+
+    @Value("${billing.recurring.max-attempts:3}")
+    private int maxAttempts;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initShards() {
+        if (!enabled)
+            return;
+        try {
+            billingShardRepository.ensureShards(shards);
+        } catch (
+                Exception e) {
+            log.warn("No se pudieron preparar los shards de cobro recurrente: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${billing.recurring.initial-delay:PT1M}",
+            fixedDelayString = "${billing.recurring.interval:PT15M}")
+    public void scheduledRun() {
+        if (!enabled)
+            return;
+        try {
+            chargeDueSubscriptions();
+        } catch (
+                Exception e) {
+            log.error("Error en el ciclo de cobro recurrente: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int chargeDueSubscriptions() {
+        OffsetDateTime since = OffsetDateTime.now(ZoneOffset.UTC).minus(interval);
+        int attempted = 0;
+        Optional<Integer> shard;
+        while ((shard = billingShardRepository.claim(shards, owner, leaseUntil(), since)).isPresent()) {
+            attempted += processShard(shard.get());
+        }
+        if (attempted > 0)
+            log.info("Cobros recurrentes intentados por {}: {}", owner, attempted);
+        return attempted;
+    }
+
+    private int processShard(int shard) {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        ShardLease shardLease = new ShardLease(shard);
+        int attempted = 0;
+        try {
+            List<SubscriptionEntity> due;
+            while (!(due = subscriptionRepository.findDueInShard(shard, shards, today, pageSize)).isEmpty()) {
+                List<SubscriptionEntity> charged = chargeConcurrently(due, today, shardLease);
+                // Cada suscripcion procesada sale del conjunto vencido (avanza periodo o fecha de reintento).
+                // Con @Version, si otro nodo tomo el shard y ya guardo estas filas el merge falla en lugar de pisarlo
+                subscriptionRepository.mergeAll(charged);
+                attempted += charged.size();
+
+                if (shardLease.isLost()) {
+                    log.warn("Se perdió el lease del shard {}, se detiene el procesamiento", shard);
+                    return attempted;
+                }
+
+                if (charged.size() < due.size()) {
+                    // Mercado Pago saturado: el resto queda intacto y el shard se retoma en el siguiente ciclo
+                    log.warn("Limite de concurrencia alcanzado en el shard {}, se difieren {} cobros",
+                            shard, due.size() - charged.size());
+                    billingShardRepository.release(shard, owner);
+                    return attempted;
+                }
+
+                if (!shardLease.renew()) {
+                    log.warn("Se perdió el lease del shard {}, se detiene el procesamiento", shard);
+                    return attempted;
+                }
+            }
+            billingShardRepository.complete(shard, owner);
+        } catch (
+                Exception e) {
+            log.error("Error procesando el shard {}: {}", shard, e.getMessage(), e);
+            billingShardRepository.release(shard, owner);
+        }
+        return attempted;
+    }
+
+    private List<SubscriptionEntity> chargeConcurrently(List<SubscriptionEntity> subscriptions, LocalDate today,
+                                                        ShardLease shardLease) {
+        Queue<SubscriptionEntity> charged = new ConcurrentLinkedQueue<>();
+        Semaphore permits = new Semaphore(concurrency);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (SubscriptionEntity subscription : subscriptions) {
+                executor.submit(() -> {
+                    permits.acquireUninterruptibly();
+                    try {
+                        // Sin lease otro nodo puede estar cobrando la misma fila: no se inician cobros nuevos
+                        if (shardLease.keepAlive() && charge(subscription, today))
+                            charged.add(subscription);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+        return List.copyOf(charged);
+    }
+
+    // false si el cobro se difirio por load shedding; la suscripcion no se modifica ni consume un intento
+    private boolean charge(SubscriptionEntity subscription, LocalDate today) {
+        int attempt = subscription.getFailedAttempts() != null ? subscription.getFailedAttempts() + 1 : 1;
+        String reference = "sub-" + subscription.getId() + "-"
+                + subscription.getNextChargeDate().format(PERIOD) + "-" + attempt;
+        String status = null;
+        boolean declined = false;
+        try (TenantContext.Scope scope = TenantContext.open(subscription.getTenantId())) {
+            // Siempre se busca antes de tokenizar: un nodo pudo caer despues de que Mercado Pago creara el pago
+            // y antes de guardar la fila local y la suscripcion, sin dejar rastro de la referencia en curso
+            Optional<PaymentResponse> created = paymentService.findCreatedPayment(reference);
+            if (created.isPresent()) {
+                status = created.get().status();
+            } else {
+                CardToken token = mercadoPagoGateway.createCardToken(CardTokenRequest.builder()
+                        .cardId(subscription.getMpCardId())
+                        .customerId(subscription.getMpCustomerId())
+                        .build());
+
+                DirectPaymentRequest request = new DirectPaymentRequest(
+                        reference,
+                        subscription.getAmount(),
+                        subscription.getPayerEmail(),
+                        subscription.getPayerFirstName(),
+                        subscription.getPayerLastName(),
+                        subscription.getDescription() != null ? subscription.getDescription() : "Membresía FitDesk",
+                        token.getId(),
+                        1,
+                        subscription.getPaymentMethodId(),
+                        subscription.getPayerIdentificationType(),
+                        subscription.getPayerIdentificationNumber());
+
+                PaymentResponse response;
+                try {
+                    response = paymentService.processRecurringPayment(request);
+                } catch (
+                        DuplicatePaymentException e) {
+                    // La referencia ya tiene un pago por otro monto (la cuota cambio): ese pago es el del periodo
+                    response = paymentService.findCreatedPayment(reference).orElseThrow(() -> e);
+                }
+                status = response.status();
+            }
+        } catch (
+                ConcurrencyLimitExceededException e) {
+            return false;
+        } catch (
+                PaymentDeclinedException e) {
+            declined = true;
+        } catch (
+                DuplicatePaymentException e) {
+            // Referencia ocupada sin pago recuperable: se consume el intento para pasar a una referencia nueva
+            declined = true;
+            log.warn("Referencia {} ya usada con otro monto en la suscripción {}", reference, subscription.getId());
+        } catch (
+                MPApiException e) {
+            // 4xx al tokenizar la tarjeta guardada (tarjeta eliminada o vencida): rechazo definitivo
+            declined = e.getStatusCode() >= 400 && e.getStatusCode() < 500 && e.getStatusCode() != 429;
+            log.warn("Error de Mercado Pago cobrando la suscripción {} ({}): {}",
+                    subscription.getId(), reference, e.getStatusCode());
+        } catch (
+                Exception e) {
+            log.warn("Error cobrando la suscripción {} ({}): {}", subscription.getId(), reference, e.getMessage());
+        }
+
+        subscription.setLastPaymentReference(reference);
+
+        if (status == null && !declined) {
+            // Resultado desconocido: se reintenta con la misma referencia sin consumir un intento
+            subscription.setLastPaymentStatus(null);
+            subscription.setNextAttemptDate(today.plusDays(retryDelayDays));
+            return true;
+        }
+
+        subscription.setLastPaymentStatus(declined ? PaymentStatus.REJECTED.getValue() : status);
+
+        if (!declined && !FAILED_STATUSES.contains(status)) {
+            subscription.setNextChargeDate(subscription.getNextChargeDate().plusMonths(1));
+            subscription.setNextAttemptDate(null);
+            subscription.setFailedAttempts(0);
+        } else {
+            subscription.setFailedAttempts(attempt);
+            subscription.setNextAttemptDate(today.plusDays(retryDelayDays));
+            if (attempt >= maxAttempts)
+                subscription.setStatus(PAST_DUE);
+        }
+        return true;
+    }
+
+    private OffsetDateTime leaseUntil() {
+        return OffsetDateTime.now(ZoneOffset.UTC).plus(lease);
+    }
+
+    // Renueva el lease antes de cada cobro una vez consumida la mitad, para que no venza a mitad de pagina
+    private final class ShardLease {
+        private final int shard;
+        private long renewedAt = System.nanoTime();
+        private boolean lost;
+
+        ShardLease(int shard) {
+            this.shard = shard;
+        }
+
+        synchronized boolean keepAlive() {
+            if (!lost && System.nanoTime() - renewedAt >= lease.toNanos() / 2)
+                renew();
+            return !lost;
+        }
+
+        synchronized boolean renew() {
+            if (!lost && billingShardRepository.renew(shard, owner, leaseUntil()))
+                renewedAt = System.nanoTime();
+            else
+                lost = true;
+            return !lost;
+        }
+
+        synchronized boolean isLost() {
+            return lost;
+        }
+    }
+}
@@ -0,0 +1,535 @@
+package com.msvcbilling.services.impl;
+
+import com.mercadopago.core.MPRequestOptions;
+import com.mercadopago.exceptions.MPApiException;
+import com.mercadopago.exceptions.MPException;
+import com.mercadopago.resources.payment.Payment;
+import com.mercadopago.resources.payment.PaymentRefund;
+import com.msvcbilling.concurrency.SmoothRateLimiter;
+import com.msvcbilling.config.datasource.ReplicaLagGuard;
+import com.msvcbilling.dtos.BulkRefundRequest;
+import com.msvcbilling.dtos.RefundJobResponse;
+import com.msvcbilling.dtos.RefundRequest;
+import com.msvcbilling.dtos.RefundResponse;
+import com.msvcbilling.entities.PaymentEntity;
+import com.msvcbilling.entities.PaymentStatus;
+import com.msvcbilling.entities.RefundEntity;
+import com.msvcbilling.entities.RefundJobEntity;
+import com.msvcbilling.entities.RefundOperation;
+import com.msvcbilling.events.PaymentStatusChangedEvent;
+import com.msvcbilling.exceptions.BillingException;
+import com.msvcbilling.exceptions.ConcurrencyLimitExceededException;
+import com.msvcbilling.exceptions.PaymentDeclinedException;
+import com.msvcbilling.exceptions.PaymentNotFoundException;
+import com.msvcbilling.exceptions.RefundJobNotFoundException;
+import com.msvcbilling.exceptions.RefundNotAllowedException;
+import com.msvcbilling.gateway.MercadoPagoGateway;
+import com.msvcbilling.mappers.PaymentMapper;
+import com.msvcbilling.mappers.RefundMapper;
+import com.msvcbilling.repository.PaymentArchiveRepository;
+import com.msvcbilling.repository.PaymentRepository;
+import com.msvcbilling.repository.RefundJobRepository;
+import com.msvcbilling.repository.RefundRepository;
+import com.msvcbilling.services.RefundService;
+import com.msvcbilling.tenant.TenantContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Devoluciones y cancelaciones sobre pagos de Mercado Pago. Cada operacion tiene una clave propia (refund_key)
+ * que tambien viaja como x-idempotency-key, de modo que un reintento nunca duplica una devolucion.
+ * Los lotes corren en segundo plano por bloques: fan-out acotado sobre hilos virtuales, ritmo limitado hacia
+ * Mercado Pago y una transaccion por bloque para las filas de devolucion y otra para los estados de pago.
+ */
+@Service
+@Slf4j
+public class RefundServiceImpl implements RefundService {
+
+    private static final String GATEWAY_ERROR = "GATEWAY_ERROR";
+    private static final Set<String> CANCELLABLE_STATUSES = Set.of(
+            PaymentStatus.PENDING.getValue(), PaymentStatus.IN_PROCESS.getValue(), PaymentStatus.AUTHORIZED.getValue());
+
+    private final RefundRepository refundRepository;
+    private final RefundJobRepository refundJobRepository;
+    private final PaymentRepository paymentRepository;
+    private final PaymentArchiveRepository paymentArchiveRepository;
+    private final MercadoPagoGateway mercadoPagoGateway;
+    private final RefundMapper refundMapper;
+    private final PaymentMapper paymentMapper;
+    private final ReplicaLagGuard replicaLagGuard;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final SmoothRateLimiter rateLimiter;
+    private final ExecutorService jobExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${billing.refunds.parallelism:8}")
+    private int parallelism;
+
+    @Value("${billing.refunds.batch-size:100}")
+    private int batchSize;
+
+    @Value("${billing.refunds.shed-max-attempts:5}")
+    private int shedMaxAttempts;
+
+    @Value("${billing.payments.update-max-attempts:3}")
+    private int updateMaxAttempts;
+
+    public RefundServiceImpl(RefundRepository refundRepository,
+                             RefundJobRepository refundJobRepository,
+                             PaymentRepository paymentRepository,
+                             PaymentArchiveRepository paymentArchiveRepository,
+                             MercadoPagoGateway mercadoPagoGateway,
+                             RefundMapper refundMapper,
+                             PaymentMapper paymentMapper,
+                             ReplicaLagGuard replicaLagGuard,
+                             ApplicationEventPublisher eventPublisher,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${billing.refunds.rate-per-second:20}") double ratePerSecond) {
+        this.refundRepository = refundRepository;
+        this.refundJobRepository = refundJobRepository;
+        this.paymentRepository = paymentRepository;
+        this.paymentArchiveRepository = paymentArchiveRepository;
+        this.mercadoPagoGateway = mercadoPagoGateway;
+        this.refundMapper = refundMapper;
+        this.paymentMapper = paymentMapper;
+        this.replicaLagGuard = replicaLagGuard;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.rateLimiter = new SmoothRateLimiter(ratePerSecond);
+    }
+
+    @Override
+    public RefundResponse refund(RefundRequest request) throws Exception {
+        String refundKey = request.idempotencyKey() != null && !request.idempotencyKey().isBlank()
+                ? request.idempotencyKey()
+                : defaultRefundKey(request.operation(), request.externalReference(), request.amount());
+
+        String tenantId = TenantContext.current();
+        Outcome outcome = execute(tenantId, request.operation(), request.externalReference(),
+                request.amount(), request.reason(), refundKey, null,
+                refundRepository.findByTenantIdAndRefundKey(tenantId, refundKey).orElse(null),
+                findIncludingArchive(request.externalReference()).orElse(null));
+
+        // Rechazos previos a Mercado Pago (pago inexistente o en estado invalido) no dejan fila
+        if (outcome.persistable())
+            persist(List.of(outcome));
+        if (outcome.error() != null)
+            throw outcome.error();
+        return refundMapper.entityToResponse(outcome.refund());
+    }
+
+    @Override
+    public RefundJobResponse submitBulk(BulkRefundRequest request) {
+        String tenantId = TenantContext.current();
+        Optional<RefundJobEntity> existing = refundJobRepository.findByTenantIdAndJobKey(tenantId, request.idempotencyKey());
+        if (existing.isPresent() && !RefundJobEntity.FAILED.equals(existing.get().getStatus()))
+            return refundMapper.jobToResponse(existing.get());
+
+        List<String> references = request.externalReferences().stream().distinct().toList();
+        RefundJobEntity job = existing.orElseGet(() -> RefundJobEntity.builder()
+                .id(UUID.randomUUID())
+                .tenantId(tenantId)
+                .jobKey(request.idempotencyKey())
+                .operation(request.operation())
+                .reason(request.reason())
+                .dateCreated(OffsetDateTime.now(ZoneOffset.UTC))
+                .build());
+        // Un proceso fallido se relanza completo: las claves por pago evitan repetir devoluciones ya hechas
+        job.setStatus(RefundJobEntity.RUNNING);
+        job.setTotal(references.size());
+        job.setSucceeded(0);
+        job.setFailed(0);
+        job.setDateFinished(null);
+        RefundJobEntity saved = refundJobRepository.save(job);
+
+        log.info("Proceso de {} {} registrado con {} pagos", saved.getOperation(), saved.getId(), references.size());
+        // El proceso corre fuera de la peticion: el tenant del administrador viaja explicito
+        jobExecutor.submit(() -> runJob(tenantId, saved.getId(), saved.getOperation(), saved.getReason(), references));
+        return refundMapper.jobToResponse(saved);
+    }
+
+    @Override
+    public RefundJobResponse getJob(UUID jobId) {
+        return refundJobRepository.findByIdAndTenantId(jobId, TenantContext.current())
+                .map(refundMapper::jobToResponse)
+                .orElseThrow(() -> RefundJobNotFoundException.INSTANCE);
+    }
+
+    @Override
+    public Page<RefundResponse> getJobItems(UUID jobId, String status, Pageable pageable) {
+        String tenantId = TenantContext.current();
+        if (refundJobRepository.findByIdAndTenantId(jobId, tenantId).isEmpty())
+            throw RefundJobNotFoundException.INSTANCE;
+        return refundRepository.findByJobIdAndTenantIdAndStatus(jobId, tenantId, status, pageable)
+                .map(refundMapper::entityToResponse);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdown();
+    }
+
+    private void runJob(String tenantId, UUID jobId, RefundOperation operation, String reason, List<String> references) {
+        int succeeded = 0;
+        int failed = 0;
+        try {
+            for (int from = 0; from < references.size(); from += batchSize) {
+                List<String> chunk = references.subList(from, Math.min(from + batchSize, references.size()));
+                List<Outcome> outcomes = executeChunk(tenantId, jobId, operation, reason, chunk);
+                persist(outcomes);
+
+                int chunkSucceeded = (int) outcomes.stream()
+                        .filter(o -> RefundEntity.SUCCEEDED.equals(o.refund().getStatus()))
+                        .count();
+                succeeded += chunkSucceeded;
+                failed += outcomes.size() - chunkSucceeded;
+                updateJob(jobId, succeeded, failed, null);
+            }
+            updateJob(jobId, succeeded, failed,
+                    failed == 0 ? RefundJobEntity.COMPLETED : RefundJobEntity.COMPLETED_WITH_ERRORS);
+            log.info("Proceso {} finalizado: {} exitosos, {} fallidos", jobId, succeeded, failed);
+        } catch (
+                Exception e) {
+            log.error("Error en el proceso de devoluciones {}: {}", jobId, e.getMessage(), e);
+            updateJob(jobId, succeeded, failed, RefundJobEntity.FAILED);
+        }
+    }
+
+    // Lecturas del bloque en dos consultas; cada pago se procesa en su propio hilo virtual con paralelismo acotado
+    private List<Outcome> executeChunk(String tenantId, UUID jobId, RefundOperation operation, String reason,
+                                       List<String> references) {
+        Map<String, String> keys = references.stream()
+                .collect(Collectors.toMap(Function.identity(), ref -> defaultRefundKey(operation, ref, null)));
+        Map<String, RefundEntity> existing = refundRepository.findByTenantIdAndRefundKeyIn(tenantId, keys.values())
+                .stream()
+                .collect(Collectors.toMap(RefundEntity::getRefundKey, Function.identity()));
+        Map<String, PaymentEntity> payments = paymentRepository.findAllByExternalReferenceIn(references).stream()
+                .collect(Collectors.toMap(PaymentEntity::getExternalReference, Function.identity()));
+
+        Queue<Outcome> outcomes = new ConcurrentLinkedQueue<>();
+        Semaphore permits = new Semaphore(parallelism);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String reference : references) {
+                executor.submit(() -> {
+                    permits.acquireUninterruptibly();
+                    try {
+                        String refundKey = keys.get(reference);
+                        PaymentEntity payment = payments.get(reference);
+                        if (payment == null)
+                            payment = paymentArchiveRepository.findByExternalReference(reference).orElse(null);
+                        outcomes.add(execute(tenantId, operation, reference, null, reason, refundKey, jobId,
+                                existing.get(refundKey), payment));
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+        return List.copyOf(outcomes);
+    }
+
+    private Outcome execute(String tenantId, RefundOperation operation, String externalReference, BigDecimal amount,
+                            String reason, String refundKey, UUID jobId, RefundEntity existing, PaymentEntity payment) {
+        // Un pago de otro gimnasio se trata como inexistente; no se guarda fila para no reservar la clave
+        if (payment != null && !belongsTo(tenantId, payment.getTenantId())) {
+            RefundEntity rejected = RefundEntity.builder()
+                    .id(UUID.randomUUID())
+                    .refundKey(refundKey)
+                    .jobId(jobId)
+                    .operation(operation)
+                    .externalReference(externalReference)
+                    .dateCreated(OffsetDateTime.now(ZoneOffset.UTC))
+                    .build();
+            return failed(rejected, false, PaymentNotFoundException.INSTANCE);
+        }
+
+        if (existing != null && RefundEntity.SUCCEEDED.equals(existing.getStatus())) {
+            count(operation, "replayed");
+            return new Outcome(existing, false, null, null, null);
+        }
+
+        RefundEntity refund = existing != null ? existing : RefundEntity.builder()
+                .id(UUID.randomUUID())
+                .tenantId(tenantId)
+                .refundKey(refundKey)
+                .operation(operation)
+                .externalReference(externalReference)
+                .dateCreated(OffsetDateTime.now(ZoneOffset.UTC))
+                .build();
+        if (jobId != null)
+            refund.setJobId(jobId);
+        refund.setAmount(amount);
+        refund.setReason(reason);
+
+        if (payment == null)
+            return failed(refund, jobId != null, PaymentNotFoundException.INSTANCE);
+        refund.setPaymentId(payment.getPaymentId());
+        if (!isAllowed(operation, payment, amount))
+            return failed(refund, jobId != null, RefundNotAllowedException.INSTANCE);
+
+        Map<String, String> headers = new HashMap<>();
+        headers.put("x-idempotency-key", idempotencyKey(refundKey));
+        MPRequestOptions options = MPRequestOptions.builder()
+                .customHeaders(headers)
+                .build();
+
+        for (int attempt = 1; ; attempt++) {
+            try (TenantContext.Scope scope = TenantContext.open(payment.getTenantId())) {
+                rateLimiter.acquire();
+                return callGateway(operation, payment, amount, options, refund);
+            } catch (
+                    ConcurrencyLimitExceededException e) {
+                // Mercado Pago saturado: se espera lo indicado por el limitador antes de reintentar
+                if (attempt >= shedMaxAttempts)
+                    return failed(refund, true, e);
+                sleep(Duration.ofSeconds(Math.max(1, e.getRetryAfterSeconds())));
+            } catch (
+                    MPApiException e) {
+                int statusCode = e.getStatusCode();
+                if (statusCode >= 400 && statusCode < 500 && statusCode != 429) {
+                    log.info("Mercado Pago rechazó {} de {}: HTTP {}", operation, externalReference, statusCode);
+                    return failed(refund, true, PaymentDeclinedException.INSTANCE);
+                }
+                return failed(refund, GATEWAY_ERROR, "HTTP " + statusCode + ": " + e.getMessage());
+            } catch (
+                    Exception e) {
+                log.warn("Error en {} de {}: {}", operation, externalReference, e.getMessage());
+                return failed(refund, GATEWAY_ERROR, e.getMessage());
+            }
+        }
+    }
+
+    private Outcome callGateway(RefundOperation operation, PaymentEntity payment, BigDecimal amount,
+                                MPRequestOptions options, RefundEntity refund) throws MPException, MPApiException {
+        if (operation == RefundOperation.CANCEL) {
+            Payment cancelled = mercadoPagoGateway.cancelPayment(payment.getPaymentId(), options);
+            return succeeded(refund, cancelled.getStatus(), cancelled.getStatusDetail());
+        }
+
+        PaymentRefund mpRefund = mercadoPagoGateway.refundPayment(payment.getPaymentId(), amount, options);
+        refund.setMpRefundId(mpRefund.getId());
+        boolean full = amount == null || amount.compareTo(payment.getAmount()) >= 0;
+        // Una devolucion parcial deja el pago aprobado; Mercado Pago solo cambia el detalle
+        return full
+                ? succeeded(refund, PaymentStatus.REFUNDED.getValue(), "refunded")
+                : succeeded(refund, payment.getStatus(), "partially_refunded");
+    }
+
+    private static boolean belongsTo(String tenantId, String ownerTenantId) {
+        return Objects.equals(tenantId, ownerTenantId != null ? ownerTenantId : TenantContext.DEFAULT_TENANT);
+    }
+
+    private static boolean isAllowed(RefundOperation operation, PaymentEntity payment, BigDecimal amount) {
+        if (payment.getPaymentId() == null)
+            return false;
+        if (operation == RefundOperation.CANCEL)
+            return amount == null && CANCELLABLE_STATUSES.contains(payment.getStatus());
+        return PaymentStatus.APPROVED.getValue().equals(payment.getStatus())
+                && (amount == null || payment.getAmount() == null || amount.compareTo(payment.getAmount()) <= 0);
+    }
+
+    private void persist(List<Outcome> outcomes) {
+        List<RefundEntity> rows = outcomes.stream()
+                .filter(Outcome::persistable)
+                .map(Outcome::refund)
+                .toList();
+        if (!rows.isEmpty())
+            saveRefunds(rows);
+        applyPaymentStatuses(outcomes);
+    }
+
+    private void saveRefunds(List<RefundEntity> rows) {
+        try {
+            transactionTemplate.executeWithoutResult(tx -> {
+                // Filas reintentadas: se precargan en una consulta para que merge no haga un SELECT por fila
+                List<UUID> retried = rows.stream().filter(r -> r.getVersion() != null).map(RefundEntity::getId).toList();
+                if (!retried.isEmpty())
+                    refundRepository.findAllById(retried);
+                refundRepository.saveAll(rows);
+            });
+        } catch (
+                DataIntegrityViolationException | OptimisticLockingFailureException e) {
+            // Otro proceso registro la misma clave en paralelo: se guarda fila por fila y se conserva la existente
+            log.debug("Conflicto guardando {} devoluciones en bloque, se reintenta por fila", rows.size());
+            for (RefundEntity row : rows) {
+                try {
+                    transactionTemplate.executeWithoutResult(tx -> refundRepository.save(row));
+                } catch (
+                        DataIntegrityViolationException | OptimisticLockingFailureException ex) {
+                    log.debug("Devolución {} ya registrada por otro proceso", row.getRefundKey());
+                }
+            }
+        }
+    }
+
+    private void applyPaymentStatuses(List<Outcome> outcomes) {
+        Map<String, Outcome> changes = outcomes.stream()
+                .filter(o -> o.paymentStatus() != null)
+                .collect(Collectors.toMap(o -> o.refund().getExternalReference(), Function.identity(), (a, b) -> b));
+        if (changes.isEmpty())
+            return;
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                List<String> updated = transactionTemplate.execute(tx -> updatePaymentStatuses(changes));
+                updated.forEach(replicaLagGuard::recordWrite);
+                return;
+            } catch (
+                    OptimisticLockingFailureException e) {
+                // La devolucion ya quedo registrada; el webhook de Mercado Pago terminara de alinear el estado
+                if (attempt >= updateMaxAttempts) {
+                    log.warn("No se pudo actualizar el estado de {} pagos tras devoluciones: {}",
+                            changes.size(), e.getMessage());
+                    return;
+                }
+            }
+        }
+    }
+
+    // Un pago archivado aprobado tambien puede devolverse: su fila se actualiza en payments_archive
+    private List<String> updatePaymentStatuses(Map<String, Outcome> changes) {
+        List<PaymentEntity> payments = paymentRepository.findAllByExternalReferenceIn(changes.keySet());
+        List<PaymentEntity> updated = new ArrayList<>();
+        Set<String> archived = new HashSet<>(changes.keySet());
+        payments.forEach(payment -> archived.remove(payment.getExternalReference()));
+        for (PaymentEntity payment : payments) {
+            Outcome outcome = changes.get(payment.getExternalReference());
+            String previousStatus = payment.getStatus();
+            if (!PaymentStatus.canTransition(previousStatus, outcome.paymentStatus()))
+                continue;
+
+            payment.setStatus(outcome.paymentStatus());
+            payment.setStatusDetail(outcome.statusDetail());
+            updated.add(payment);
+            eventPublisher.publishEvent(new PaymentStatusChangedEvent(
+                    payment.getExternalReference(), previousStatus, paymentMapper.entityToResponse(payment)));
+        }
+        paymentRepository.saveAll(updated);
+        for (String reference : archived)
+            paymentArchiveRepository.findByExternalReference(reference)
+                    .ifPresent(payment -> updateArchivedStatus(payment, changes.get(reference)));
+        return updated.stream().map(PaymentEntity::getExternalReference).toList();
+    }
+
+    private void updateArchivedStatus(PaymentEntity payment, Outcome outcome) {
+        String previousStatus = payment.getStatus();
+        if (!PaymentStatus.canTransition(previousStatus, outcome.paymentStatus()))
+            return;
+        if (paymentArchiveRepository.updateStatus(payment.getId(), previousStatus, outcome.paymentStatus(),
+                outcome.statusDetail(), null, null) == 0)
+            throw new OptimisticLockingFailureException(
+                    "El pago archivado " + payment.getExternalReference() + " cambio durante la actualizacion");
+
+        payment.setStatus(outcome.paymentStatus());
+        payment.setStatusDetail(outcome.statusDetail());
+        eventPublisher.publishEvent(new PaymentStatusChangedEvent(
+                payment.getExternalReference(), previousStatus, paymentMapper.entityToResponse(payment)));
+    }
+
+    private void updateJob(UUID jobId, int succeeded, int failed, String finalStatus) {
+        try {
+            transactionTemplate.executeWithoutResult(tx -> refundJobRepository.findById(jobId).ifPresent(job -> {
+                job.setSucceeded(succeeded);
+                job.setFailed(failed);
+                if (finalStatus != null) {
+                    job.setStatus(finalStatus);
+                    job.setDateFinished(OffsetDateTime.now(ZoneOffset.UTC));
+                }
+            }));
+        } catch (
+                Exception e) {
+            log.warn("No se pudo actualizar el progreso del proceso {}: {}", jobId, e.getMessage());
+        }
+    }
+
+    private Outcome succeeded(RefundEntity refund, String paymentStatus, String statusDetail) {
+        refund.setStatus(RefundEntity.SUCCEEDED);
+        refund.setErrorCode(null);
+        refund.setErrorMessage(null);
+        refund.setDateProcessed(OffsetDateTime.now(ZoneOffset.UTC));
+        count(refund.getOperation(), "succeeded");
+        return new Outcome(refund, true, paymentStatus, statusDetail, null);
+    }
+
+    private Outcome failed(RefundEntity refund, boolean persistable, BillingException error) {
+        markFailed(refund, error.getErrorCode(), error.getMessage());
+        return new Outcome(refund, persistable, null, null, error);
+    }
+
+    private Outcome failed(RefundEntity refund, String errorCode, String errorMessage) {
+        markFailed(refund, errorCode, errorMessage);
+        return new Outcome(refund, true, null, null, null);
+    }
+
+    private void markFailed(RefundEntity refund, String errorCode, String errorMessage) {
+        refund.setStatus(RefundEntity.FAILED);
+        refund.setErrorCode(errorCode);
+        refund.setErrorMessage(errorMessage);
+        refund.setDateProcessed(OffsetDateTime.now(ZoneOffset.UTC));
+        count(refund.getOperation(), "failed");
+    }
+
+    private void count(RefundOperation operation, String outcome) {
+        Counter.builder("billing.refunds")
+                .tag("operation", operation.name())
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private Optional<PaymentEntity> findIncludingArchive(String externalReference) {
+        Optional<PaymentEntity> payment = paymentRepository.findByExternalReference(externalReference);
+        return payment.isPresent() ? payment : paymentArchiveRepository.findByExternalReference(externalReference);
+    }
+
+    // La misma devolucion total pedida de forma individual o por lote comparte clave y nunca se ejecuta dos veces
+    private static String defaultRefundKey(RefundOperation operation, String externalReference, BigDecimal amount) {
+        String key = operation.name() + ":" + externalReference;
+        return amount != null ? key + ":" + amount.stripTrailingZeros().toPlainString() : key;
+    }
+
+    private static String idempotencyKey(String refundKey) {
+        return UUID.nameUUIDFromBytes(("msvc-billing:refund:" + refundKey).getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (
+                InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // persistable: la fila debe guardarse (en lotes siempre, para que los fallos queden consultables)
+    private record Outcome(RefundEntity refund, boolean persistable, String paymentStatus, String statusDetail,
+                           BillingException error) {
+    }
+}
@@ -0,0 +1,70 @@
+package com.msvcbilling.tenant;
+
+import com.mercadopago.client.cardtoken.CardTokenClient;
+import com.mercadopago.client.payment.PaymentClient;
+import com.mercadopago.client.paymentmethod.PaymentMethodClient;
+import com.mercadopago.net.MPDefaultHttpClient;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Registro en memoria de los clientes de Mercado Pago por tenant. Cada tenant configurado obtiene
+ * su propio MPDefaultHttpClient (pool de conexiones aislado) y un bulkhead, de modo que una cuenta lenta
+ * no agota las conexiones ni los hilos de los demas gimnasios.
+ */
+@Component
+public class MercadoPagoTenantClients {
+
+    private final TenantProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final TenantClients defaultClients;
+    private final Map<String, TenantClients> clients = new ConcurrentHashMap<>();
+
+    public MercadoPagoTenantClients(TenantProperties properties, MeterRegistry meterRegistry,
+                                    PaymentClient paymentClient, PaymentMethodClient paymentMethodClient,
+                                    CardTokenClient cardTokenClient) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.defaultClients = register(new TenantClients(TenantContext.DEFAULT_TENANT, null,
+                paymentClient, paymentMethodClient, cardTokenClient,
+                new Semaphore(properties.getDefaultMaxConcurrentCalls())));
+    }
+
+    public boolean isKnown(String tenantId) {
+        return TenantContext.DEFAULT_TENANT.equals(tenantId) || properties.getCredentials().containsKey(tenantId);
+    }
+
+    public TenantClients forTenant(String tenantId) {
+        if (tenantId == null || TenantContext.DEFAULT_TENANT.equals(tenantId))
+            return defaultClients;
+        return clients.computeIfAbsent(tenantId, this::create);
+    }
+
+    private TenantClients create(String tenantId) {
+        TenantProperties.Credentials credentials = properties.getCredentials().get(tenantId);
+        if (credentials == null || credentials.getAccessToken() == null)
+            throw new IllegalArgumentException("Tenant sin credenciales de Mercado Pago: " + tenantId);
+
+        MPDefaultHttpClient httpClient = new MPDefaultHttpClient();
+        int maxConcurrentCalls = credentials.getMaxConcurrentCalls() != null
+                ? credentials.getMaxConcurrentCalls()
+                : properties.getDefaultMaxConcurrentCalls();
+        return register(new TenantClients(tenantId, credentials.getAccessToken(),
+                new PaymentClient(httpClient),
+                new PaymentMethodClient(httpClient),
+                new CardTokenClient(httpClient),
+                new Semaphore(maxConcurrentCalls)));
+    }
+
+    private TenantClients register(TenantClients tenantClients) {
+        Gauge.builder("billing.tenant.bulkhead.available", tenantClients.bulkhead(), Semaphore::availablePermits)
+                .tag("tenant", tenantClients.tenantId())
+                .register(meterRegistry);
+        return tenantClients;
+    }
+}
@@ -0,0 +1,29 @@
+package com.msvcbilling.tenant;
+
+import com.mercadopago.client.cardtoken.CardTokenClient;
+import com.mercadopago.client.payment.PaymentClient;
+import com.mercadopago.client.paymentmethod.PaymentMethodClient;
+import com.mercadopago.core.MPRequestOptions;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Clientes del SDK de un tenant: comparten un pool HTTP propio y un bulkhead que acota sus llamadas concurrentes.
+ */
+public record TenantClients(
+        String tenantId,
+        String accessToken,
+        PaymentClient paymentClient,
+        PaymentMethodClient paymentMethodClient,
+        CardTokenClient cardTokenClient,
+        Semaphore bulkhead
+) {
+
+    // El token viaja en cada peticion; sin token el SDK usa el global de MercadoPagoConfig
+    public MPRequestOptions options(MPRequestOptions base) {
+        return MPRequestOptions.builder()
+                .accessToken(accessToken)
+                .customHeaders(base != null ? base.getCustomHeaders() : null)
+                .build();
+    }
+}
@@ -0,0 +1,42 @@
+package com.msvcbilling.tenant;
+
+/**
+ * Tenant (gimnasio) del hilo actual. Lo fija TenantResolutionFilter en las peticiones HTTP y los procesos
+ * en segundo plano a partir del tenant guardado en el pago o la suscripcion.
+ */
+public final class TenantContext {
+
+    public static final String DEFAULT_TENANT = "default";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    public static String current() {
+        String tenantId = CURRENT.get();
+        return tenantId != null ? tenantId : DEFAULT_TENANT;
+    }
+
+    public static Scope open(String tenantId) {
+        String previous = CURRENT.get();
+        CURRENT.set(tenantId != null ? tenantId : DEFAULT_TENANT);
+        return new Scope(previous);
+    }
+
+    public static final class Scope implements AutoCloseable {
+        private final String previous;
+
+        private Scope(String previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null)
+                CURRENT.remove();
+            else
+                CURRENT.set(previous);
+        }
+    }
+}
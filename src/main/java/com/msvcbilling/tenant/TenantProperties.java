@@ -0,0 +1,34 @@
+package com.msvcbilling.tenant;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Credenciales de Mercado Pago por tenant (billing.tenants.credentials.&lt;tenantId&gt;.access-token).
+ * El tenant "default" usa mercadopago.access-token y el pool compartido del SDK.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "billing.tenants")
+public class TenantProperties {
+
+    private String claim = "tenant_id";
+    private String header = "X-Tenant-Id";
+    private int defaultMaxConcurrentCalls = 20;
+    private Duration bulkheadWait = Duration.ofMillis(100);
+    private Map<String, Credentials> credentials = new HashMap<>();
+
+    @Getter
+    @Setter
+    public static class Credentials {
+        private String accessToken;
+        private Integer maxConcurrentCalls;
+    }
+}
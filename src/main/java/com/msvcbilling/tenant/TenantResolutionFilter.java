@@ -0,0 +1,72 @@
+package com.msvcbilling.tenant;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.msvcbilling.exceptions.ErrorResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Collections;
+
+/**
+ * Resuelve el tenant de la peticion. Corre despues de la cadena de seguridad: si hay JWT manda su claim,
+ * la cabecera solo se acepta en peticiones sin token. Un tenant sin credenciales se rechaza con 400.
+ */
+@Component
+@RequiredArgsConstructor
+public class TenantResolutionFilter extends OncePerRequestFilter {
+
+    private final TenantProperties properties;
+    private final MercadoPagoTenantClients tenantClients;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().substring(request.getContextPath().length()).startsWith("/billing/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String tenantId = resolve(request);
+        if (!tenantClients.isKnown(tenantId)) {
+            reject(response, tenantId);
+            return;
+        }
+
+        try (TenantContext.Scope scope = TenantContext.open(tenantId)) {
+            filterChain.doFilter(request, response);
+        }
+    }
+
+    private String resolve(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication instanceof JwtAuthenticationToken jwt) {
+            String claim = jwt.getToken().getClaimAsString(properties.getClaim());
+            return claim != null ? claim : TenantContext.DEFAULT_TENANT;
+        }
+        String header = request.getHeader(properties.getHeader());
+        return header != null && !header.isBlank() ? header.trim() : TenantContext.DEFAULT_TENANT;
+    }
+
+    private void reject(HttpServletResponse response, String tenantId) throws IOException {
+        ErrorResponse errorResponse = new ErrorResponse(
+                "UNKNOWN_TENANT",
+                "El gimnasio no tiene credenciales de pago configuradas",
+                Collections.singletonList("Tenant: " + tenantId)
+        );
+        response.setStatus(HttpStatus.BAD_REQUEST.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+}
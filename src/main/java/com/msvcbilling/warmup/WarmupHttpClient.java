@@ -0,0 +1,27 @@
+package com.msvcbilling.warmup;
+
+import com.mercadopago.net.MPHttpClient;
+import com.mercadopago.net.MPRequest;
+import com.mercadopago.net.MPResponse;
+
+import java.util.Collections;
+
+/**
+ * Stub local del API de Mercado Pago: responde un pago fijo sin salir a la red, de modo que el calentamiento
+ * ejercita la construccion de peticiones y el (de)serializado Gson del SDK sin crear cobros.
+ */
+class WarmupHttpClient implements MPHttpClient {
+
+    static final String PAYMENT_JSON = """
+            {"id": 1, "status": "approved", "status_detail": "accredited", "transaction_amount": 100.00,
+             "currency_id": "PEN", "external_reference": "warmup", "payment_method_id": "visa",
+             "payment_type_id": "credit_card", "installments": 1, "authorization_code": "000000",
+             "date_created": "2024-01-01T00:00:00.000-05:00", "date_approved": "2024-01-01T00:00:01.000-05:00",
+             "payer": {"email": "warmup@fitdesk.local", "identification": {"type": "DNI", "number": "00000000"}}}
+            """;
+
+    @Override
+    public MPResponse send(MPRequest request) {
+        return new MPResponse(200, Collections.emptyMap(), PAYMENT_JSON);
+    }
+}
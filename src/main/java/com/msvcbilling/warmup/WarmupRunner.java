@@ -0,0 +1,175 @@
+package com.msvcbilling.warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mercadopago.client.common.IdentificationRequest;
+import com.mercadopago.client.payment.PaymentClient;
+import com.mercadopago.client.payment.PaymentCreateRequest;
+import com.mercadopago.client.payment.PaymentPayerRequest;
+import com.mercadopago.core.MPRequestOptions;
+import com.mercadopago.resources.payment.Payment;
+import com.msvcbilling.dtos.DirectPaymentRequest;
+import com.msvcbilling.dtos.PaymentResponse;
+import com.msvcbilling.entities.PaymentEntity;
+import com.msvcbilling.mappers.PaymentMapper;
+import com.msvcbilling.pii.PiiCipher;
+import com.msvcbilling.repository.PayerRepository;
+import com.msvcbilling.repository.PaymentRepository;
+import com.msvcbilling.tenant.TenantContext;
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.appinfo.InstanceInfo;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Calentamiento del JIT antes de recibir trafico. Corre como ApplicationRunner, es decir antes de que Spring
+ * publique ReadinessState.ACCEPTING_TRAFFIC; la instancia se registra en Eureka como STARTING
+ * (eureka.instance.initial-status) y pasa a UP recien con ApplicationReadyEvent.
+ * Ejercita Jackson, validacion, MapStruct, los finders de PaymentRepository (transacciones revertidas) y el SDK
+ * de Mercado Pago contra un stub local, por rondas, hasta que la duracion de la ronda se estabiliza.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WarmupRunner implements ApplicationRunner {
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final PaymentMapper paymentMapper;
+    private final PaymentRepository paymentRepository;
+    private final PayerRepository payerRepository;
+    private final PiiCipher piiCipher;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+    private final ObjectProvider<ApplicationInfoManager> applicationInfoManager;
+
+    @Value("${billing.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${billing.warmup.max-duration:PT30S}")
+    private Duration maxDuration;
+
+    @Value("${billing.warmup.iterations-per-round:200}")
+    private int iterationsPerRound;
+
+    @Value("${billing.warmup.stable-rounds:3}")
+    private int stableRounds;
+
+    @Value("${billing.warmup.tolerance:0.10}")
+    private double tolerance;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled)
+            return;
+
+        long start = System.nanoTime();
+        long deadline = start + maxDuration.toNanos();
+        Timer roundTimer = Timer.builder("billing.warmup.round").register(meterRegistry);
+        PaymentClient stubClient = new PaymentClient(new WarmupHttpClient());
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+
+        int rounds = 0;
+        int stable = 0;
+        long previous = 0;
+        while (stable < stableRounds && System.nanoTime() < deadline) {
+            long roundStart = System.nanoTime();
+            try {
+                for (int i = 0; i < iterationsPerRound; i++)
+                    exercise(stubClient, transaction, i);
+            } catch (
+                    Exception e) {
+                // El calentamiento nunca debe impedir el arranque
+                log.warn("Calentamiento interrumpido: {}", e.getMessage());
+                break;
+            }
+            long elapsed = System.nanoTime() - roundStart;
+            roundTimer.record(Duration.ofNanos(elapsed));
+            // Estable = duracion dentro de la tolerancia respecto de la ronda anterior, en ambos sentidos:
+            // una ronda bastante mas rapida indica que el JIT sigue compilando. La primera no tiene referencia
+            stable = rounds > 0 && Math.abs(elapsed - previous) <= tolerance * previous ? stable + 1 : 0;
+            previous = elapsed;
+            rounds++;
+        }
+
+        log.info("Calentamiento completado: {} rondas en {} ms, última ronda {} ms",
+                rounds, Duration.ofNanos(System.nanoTime() - start).toMillis(), Duration.ofNanos(previous).toMillis());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void markUp() {
+        applicationInfoManager.ifAvailable(manager -> manager.setInstanceStatus(InstanceInfo.InstanceStatus.UP));
+    }
+
+    private void exercise(PaymentClient stubClient, TransactionTemplate transaction, int iteration) throws Exception {
+        // Pocas claves distintas: los planes se calientan igual y no se llenan las regiones de cache
+        String reference = "warmup-" + (iteration % 16);
+        DirectPaymentRequest request = new DirectPaymentRequest(reference, new BigDecimal("100.00"),
+                "warmup@fitdesk.local", "Warm", "Up", "Calentamiento", "tok_warmup", 1, "visa", "DNI", "00000000");
+
+        String json = objectMapper.writeValueAsString(request);
+        DirectPaymentRequest parsed = objectMapper.readValue(json, DirectPaymentRequest.class);
+        validator.validate(parsed);
+
+        PaymentEntity entity = PaymentEntity.builder()
+                .id(UUID.randomUUID())
+                .externalReference(reference)
+                .paymentId((long) iteration)
+                .amount(parsed.amount())
+                .currencyId("PEN")
+                .status("approved")
+                .dateCreated(OffsetDateTime.now())
+                .build();
+        PaymentResponse response = paymentMapper.entityToResponse(entity);
+        piiCipher.decrypt(piiCipher.encrypt(parsed.payerEmail()));
+        piiCipher.documentIndex(parsed.identificationType(), parsed.identificationNumber());
+        objectMapper.readValue(objectMapper.writeValueAsString(response), PaymentResponse.class);
+
+        // Referencias inexistentes en transacciones de solo lectura revertidas: no dejan rastro en la BD
+        transaction.executeWithoutResult(tx -> {
+            paymentRepository.findByExternalReference(reference);
+            paymentRepository.findByPaymentId(-1L - iteration % 16);
+            payerRepository.findIdByEmailIndex(TenantContext.DEFAULT_TENANT, piiCipher.emailIndex(parsed.payerEmail()));
+            tx.setRollbackOnly();
+        });
+
+        Payment payment = stubClient.create(PaymentCreateRequest.builder()
+                        .transactionAmount(parsed.amount())
+                        .token(parsed.token())
+                        .description(parsed.description())
+                        .installments(parsed.installments())
+                        .paymentMethodId(parsed.paymentMethodId())
+                        .externalReference(reference)
+                        .payer(PaymentPayerRequest.builder()
+                                .email(parsed.payerEmail())
+                                .identification(IdentificationRequest.builder()
+                                        .type(parsed.identificationType())
+                                        .number(parsed.identificationNumber())
+                                        .build())
+                                .build())
+                        .build(),
+                MPRequestOptions.builder()
+                        .accessToken("warmup")
+                        .customHeaders(Map.of("x-idempotency-key", reference))
+                        .build());
+        stubClient.get(payment.getId());
+    }
+}
@@ -0,0 +1,80 @@
+package com.msvcbilling.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    void rejectsAcquireBeyondLimitUntilAPermitIsReleased() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 2, 1, 10, 1.5, 0.2, 0.5);
+
+        AdaptiveConcurrencyLimiter.Permit first = limiter.tryAcquire(Priority.CRITICAL).orElseThrow();
+        limiter.tryAcquire(Priority.CRITICAL).orElseThrow();
+
+        assertThat(limiter.tryAcquire(Priority.CRITICAL)).isEmpty();
+        assertThat(limiter.isSaturated()).isTrue();
+
+        first.onIgnore();
+        assertThat(limiter.getInflight()).isEqualTo(1);
+        assertThat(limiter.tryAcquire(Priority.CRITICAL)).isPresent();
+    }
+
+    @Test
+    void lowPriorityOnlyUsesItsShareOfTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 10, 1, 10, 1.5, 0.2, 0.3);
+
+        for (int i = 0; i < 3; i++)
+            assertThat(limiter.tryAcquire(Priority.LOW)).isPresent();
+
+        assertThat(limiter.tryAcquire(Priority.LOW)).isEmpty();
+        assertThat(limiter.tryAcquire(Priority.CRITICAL)).isPresent();
+    }
+
+    @Test
+    void droppedRequestsShrinkTheLimitDownToTheMinimum() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 20, 5, 50, 1.5, 0.2, 0.5);
+
+        limiter.tryAcquire(Priority.CRITICAL).orElseThrow().onDropped();
+        assertThat(limiter.getLimit()).isEqualTo(18);
+
+        for (int i = 0; i < 50; i++)
+            limiter.tryAcquire(Priority.CRITICAL).orElseThrow().onDropped();
+        assertThat(limiter.getLimit()).isEqualTo(5);
+        assertThat(limiter.getInflight()).isZero();
+    }
+
+    @Test
+    void steadyLatencyUnderLoadGrowsTheLimitUpToTheMaximum() {
+        // Tolerancia alta: la variacion de unos microsegundos entre muestras no debe leerse como congestion
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 10, 1, 40, 1000.0, 0.5, 0.5);
+
+        for (int round = 0; round < 50; round++) {
+            List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+            limiter.tryAcquire(Priority.CRITICAL).ifPresent(permits::add);
+            while (!limiter.isSaturated())
+                permits.add(limiter.tryAcquire(Priority.CRITICAL).orElseThrow());
+            permits.forEach(AdaptiveConcurrencyLimiter.Permit::onSuccess);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(40);
+    }
+
+    @Test
+    void idleTrafficAndIgnoredErrorsDoNotMoveTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 10, 1, 40, 2.0, 0.5, 0.5);
+
+        for (int i = 0; i < 20; i++)
+            limiter.tryAcquire(Priority.CRITICAL).orElseThrow().onSuccess();
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire(Priority.CRITICAL).orElseThrow();
+        permit.onIgnore();
+        permit.onDropped();
+
+        assertThat(limiter.getLimit()).isEqualTo(10);
+        assertThat(limiter.getInflight()).isZero();
+    }
+}
@@ -0,0 +1,70 @@
+package com.msvcbilling.config.snapshot;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.SpringApplication;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConfigSnapshotEnvironmentPostProcessorTest {
+
+    private static final String KEY = Base64.getEncoder().encodeToString(new byte[32]);
+    private static final String APPLICATION_YML =
+            "Config resource 'class path resource [application.yml]' via location 'optional:classpath:/'";
+
+    private final ConfigSnapshotEnvironmentPostProcessor postProcessor =
+            new ConfigSnapshotEnvironmentPostProcessor(Supplier::get);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void snapshotOverridesPackagedDefaults() throws Exception {
+        StandardEnvironment environment = environment();
+
+        postProcessor.postProcessEnvironment(environment, new SpringApplication());
+
+        assertThat(environment.getProperty("billing.recurring.shards")).isEqualTo("16");
+        MutablePropertySources sources = environment.getPropertySources();
+        assertThat(sources.precedenceOf(sources.get(ConfigSnapshotEnvironmentPostProcessor.PROPERTY_SOURCE_NAME)))
+                .isLessThan(sources.precedenceOf(sources.get(APPLICATION_YML)))
+                .isGreaterThan(sources.precedenceOf(sources.get(StandardEnvironment.SYSTEM_ENVIRONMENT_PROPERTY_SOURCE_NAME)));
+    }
+
+    @Test
+    void configServerValuesOverrideSnapshot() throws Exception {
+        StandardEnvironment environment = environment();
+        environment.getPropertySources().addBefore(APPLICATION_YML, new MapPropertySource(
+                "configserver:https://config.local/msvc-billing.yml",
+                Map.of("billing.recurring.shards", "32")));
+
+        postProcessor.postProcessEnvironment(environment, new SpringApplication());
+
+        assertThat(environment.getProperty("billing.recurring.shards")).isEqualTo("32");
+    }
+
+    private StandardEnvironment environment() throws Exception {
+        Path path = directory.resolve("snapshot.json");
+        MockEnvironment storeEnvironment = new MockEnvironment()
+                .withProperty("billing.config-snapshot.key", KEY)
+                .withProperty("billing.config-snapshot.path", path.toString());
+        ConfigSnapshotStore.from(storeEnvironment).orElseThrow()
+                .write(ConfigSnapshotStore.snapshotOf(Map.of("billing.recurring.shards", "16")));
+
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addLast(new MapPropertySource(APPLICATION_YML, Map.of(
+                "billing.config-snapshot.key", KEY,
+                "billing.config-snapshot.path", path.toString(),
+                "billing.recurring.shards", "4")));
+        return environment;
+    }
+}
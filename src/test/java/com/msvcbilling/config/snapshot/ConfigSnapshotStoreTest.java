@@ -0,0 +1,122 @@
+package com.msvcbilling.config.snapshot;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConfigSnapshotStoreTest {
+
+    private static final String KEY = Base64.getEncoder().encodeToString(new byte[32]);
+    private static final String OTHER_KEY = Base64.getEncoder().encodeToString(new byte[]{
+            1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16,
+            17, 18, 19, 20, 21, 22, 23, 24, 25, 26, 27, 28, 29, 30, 31, 32});
+
+    // BigDecimal conserva los nanos de createdAt al reescribir el archivo sin tocar ese campo
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writtenSnapshotIsReadBack() throws Exception {
+        ConfigSnapshotStore store = store(KEY, "P7D");
+        ConfigSnapshot snapshot = ConfigSnapshotStore.snapshotOf(Map.of(
+                "mercadopago.access-token", "APP_USR-secret", "billing.recurring.shards", "16"));
+
+        store.write(snapshot);
+
+        assertThat(store.read()).hasValueSatisfying(read -> {
+            assertThat(read.version()).isEqualTo(snapshot.version());
+            assertThat(read.properties()).isEqualTo(snapshot.properties());
+        });
+    }
+
+    @Test
+    void fileDoesNotContainSecretsInClear() throws Exception {
+        ConfigSnapshotStore store = store(KEY, "P7D");
+        store.write(ConfigSnapshotStore.snapshotOf(Map.of("mercadopago.access-token", "APP_USR-secret")));
+
+        assertThat(store.path()).content().doesNotContain("APP_USR-secret");
+    }
+
+    @Test
+    void versionDependsOnlyOnContent() {
+        ConfigSnapshot first = ConfigSnapshotStore.snapshotOf(Map.of("a", "1", "b", "2"));
+        ConfigSnapshot second = ConfigSnapshotStore.snapshotOf(Map.of("b", "2", "a", "1"));
+        ConfigSnapshot changed = ConfigSnapshotStore.snapshotOf(Map.of("a", "1", "b", "3"));
+
+        assertThat(first.version()).isEqualTo(second.version()).isNotEqualTo(changed.version());
+    }
+
+    @Test
+    void tamperedPayloadIsRejected() throws Exception {
+        ConfigSnapshotStore store = store(KEY, "P7D");
+        store.write(ConfigSnapshotStore.snapshotOf(Map.of("billing.recurring.shards", "16")));
+
+        ObjectNode envelope = (ObjectNode) objectMapper.readTree(store.path().toFile());
+        byte[] payload = Base64.getDecoder().decode(envelope.get("payload").asText());
+        payload[0] ^= 1;
+        envelope.put("payload", Base64.getEncoder().encodeToString(payload));
+        objectMapper.writeValue(store.path().toFile(), envelope);
+
+        assertThat(store.read()).isEmpty();
+    }
+
+    @Test
+    void tamperedCreatedAtIsRejected() throws Exception {
+        ConfigSnapshotStore store = store(KEY, "P7D");
+        store.write(new ConfigSnapshot("v1", Instant.now().minus(Duration.ofDays(30)), Map.of("a", "1")));
+
+        ObjectNode envelope = (ObjectNode) objectMapper.readTree(store.path().toFile());
+        envelope.put("createdAt", Instant.now().toString());
+        objectMapper.writeValue(store.path().toFile(), envelope);
+
+        assertThat(store.read()).isEmpty();
+    }
+
+    @Test
+    void snapshotWrittenWithAnotherKeyIsRejected() throws Exception {
+        store(OTHER_KEY, "P7D").write(ConfigSnapshotStore.snapshotOf(Map.of("a", "1")));
+
+        assertThat(store(KEY, "P7D").read()).isEmpty();
+    }
+
+    @Test
+    void snapshotOlderThanMaxAgeIsRejected() throws Exception {
+        ConfigSnapshotStore store = store(KEY, "P7D");
+
+        store.write(new ConfigSnapshot("v1", Instant.now().minus(Duration.ofDays(8)), Map.of("a", "1")));
+        assertThat(store.read()).isEmpty();
+
+        store.write(new ConfigSnapshot("v1", Instant.now().minus(Duration.ofDays(6)), Map.of("a", "1")));
+        assertThat(store.read()).isPresent();
+    }
+
+    @Test
+    void storeIsDisabledWithoutKey() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("billing.config-snapshot.path", directory.resolve("snapshot.json").toString());
+
+        assertThat(ConfigSnapshotStore.from(environment)).isEmpty();
+    }
+
+    private ConfigSnapshotStore store(String key, String maxAge) {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("billing.config-snapshot.key", key)
+                .withProperty("billing.config-snapshot.path", directory.resolve("snapshot.json").toString())
+                .withProperty("billing.config-snapshot.max-age", maxAge);
+        return ConfigSnapshotStore.from(environment).orElseThrow();
+    }
+}
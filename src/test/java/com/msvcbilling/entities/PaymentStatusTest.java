@@ -0,0 +1,42 @@
+package com.msvcbilling.entities;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PaymentStatusTest {
+
+    @Test
+    void paymentsMoveForwardInTheirLifecycle() {
+        assertThat(PaymentStatus.canTransition("pending", "approved")).isTrue();
+        assertThat(PaymentStatus.canTransition("approved", "refunded")).isTrue();
+        assertThat(PaymentStatus.canTransition("approved", "in_mediation")).isTrue();
+        assertThat(PaymentStatus.canTransition("in_mediation", "charged_back")).isTrue();
+    }
+
+    @Test
+    void lateNotificationsDoNotMoveAPaymentBackwards() {
+        assertThat(PaymentStatus.canTransition("approved", "pending")).isFalse();
+        assertThat(PaymentStatus.canTransition("refunded", "approved")).isFalse();
+        assertThat(PaymentStatus.canTransition("approved", "rejected")).isFalse();
+    }
+
+    @Test
+    void resolvedMediationReturnsToApproved() {
+        assertThat(PaymentStatus.canTransition("in_mediation", "approved")).isTrue();
+    }
+
+    @Test
+    void knownStatusIsNeverReplacedByAnUnknownOne() {
+        assertThat(PaymentStatus.canTransition("approved", "unknown")).isFalse();
+        assertThat(PaymentStatus.canTransition("refunded", null)).isFalse();
+        assertThat(PaymentStatus.canTransition("charged_back", "some_new_status")).isFalse();
+    }
+
+    @Test
+    void unknownStatusCanBeResolved() {
+        assertThat(PaymentStatus.canTransition("unknown", "approved")).isTrue();
+        assertThat(PaymentStatus.canTransition(null, "pending")).isTrue();
+        assertThat(PaymentStatus.canTransition("unknown", "unknown")).isTrue();
+    }
+}
@@ -0,0 +1,164 @@
+package com.msvcbilling.messaging;
+
+import com.mercadopago.exceptions.MPException;
+import com.msvcbilling.dtos.DirectPaymentRequest;
+import com.msvcbilling.dtos.PaymentResponse;
+import com.msvcbilling.services.PaymentService;
+import com.msvcbilling.tenant.MercadoPagoTenantClients;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(
+        classes = ChargeCommandListenerTest.TestConfig.class,
+        properties = {
+                "spring.cloud.bootstrap.enabled=false",
+                "spring.cloud.config.enabled=false",
+                "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+                "spring.kafka.consumer.auto-offset-reset=earliest",
+                "billing.kafka.charge.enabled=true",
+                "billing.kafka.charge.consumers=1",
+                "billing.kafka.charge.retry-max-interval=PT1S",
+                "billing.kafka.charge.retry-max-elapsed=PT3S"
+        })
+@EmbeddedKafka(partitions = 1, topics = {
+        ChargeCommandListenerTest.COMMANDS, ChargeCommandListenerTest.RESULTS, ChargeCommandListenerTest.DEAD_LETTER})
+class ChargeCommandListenerTest {
+
+    static final String COMMANDS = "billing.charge-commands";
+    static final String RESULTS = "billing.charge-results";
+    static final String DEAD_LETTER = COMMANDS + ".DLT";
+
+    @Configuration
+    @ImportAutoConfiguration({KafkaAutoConfiguration.class, JacksonAutoConfiguration.class,
+            ValidationAutoConfiguration.class})
+    @Import({ChargeCommandKafkaConfig.class, ChargeCommandListener.class})
+    static class TestConfig {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private EmbeddedKafkaBroker broker;
+
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @MockitoBean
+    private PaymentService paymentService;
+
+    @MockitoBean
+    private MercadoPagoTenantClients tenantClients;
+
+    @BeforeEach
+    void setUp() {
+        when(tenantClients.isKnown(anyString())).thenReturn(true);
+    }
+
+    @Test
+    void tombstoneInABatchIsSkippedAndTheRestIsProcessed() throws Exception {
+        String reference = "ref-" + UUID.randomUUID();
+        when(paymentService.processDirectPayment(any())).thenAnswer(invocation -> approved(invocation.getArgument(0)));
+
+        kafkaTemplate.send(new ProducerRecord<>(COMMANDS, "compacted", null));
+        kafkaTemplate.send(COMMANDS, reference, command(reference)).get();
+
+        assertThat(awaitRecord(RESULTS, reference).value()).contains("\"outcome\":\"processed\"");
+    }
+
+    @Test
+    void mercadoPagoUnavailableRedeliversTheCommand() throws Exception {
+        String reference = "ref-" + UUID.randomUUID();
+        when(paymentService.processDirectPayment(argThat(request -> request != null && reference.equals(request.externalReference()))))
+                .thenThrow(new MPException("503 Service Unavailable"))
+                .thenAnswer(invocation -> approved(invocation.getArgument(0)));
+
+        kafkaTemplate.send(COMMANDS, reference, command(reference)).get();
+
+        assertThat(awaitRecord(RESULTS, reference).value()).contains("\"outcome\":\"processed\"");
+        verify(paymentService, times(2)).processDirectPayment(
+                argThat(request -> request != null && reference.equals(request.externalReference())));
+    }
+
+    @Test
+    void commandGoesToDeadLetterTopicOnceRetriesAreExhausted() throws Exception {
+        String reference = "ref-" + UUID.randomUUID();
+        when(paymentService.processDirectPayment(argThat(request -> request != null && reference.equals(request.externalReference()))))
+                .thenThrow(new MPException("503 Service Unavailable"));
+
+        kafkaTemplate.send(COMMANDS, reference, command(reference)).get();
+
+        ConsumerRecord<String, String> dead = awaitRecord(DEAD_LETTER, reference);
+        assertThat(dead.value()).isEqualTo(command(reference));
+        verify(paymentService, timeout(1000).atLeast(2)).processDirectPayment(
+                argThat(request -> request != null && reference.equals(request.externalReference())));
+    }
+
+    private ConsumerRecord<String, String> awaitRecord(String topic, String key) {
+        Map<String, Object> props = KafkaTestUtils.consumerProps("test-" + UUID.randomUUID(), "false", broker);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        try (Consumer<String, String> consumer = new DefaultKafkaConsumerFactory<String, String>(props).createConsumer()) {
+            consumer.subscribe(List.of(topic));
+            long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+            while (System.nanoTime() < deadline) {
+                for (ConsumerRecord<String, String> record : consumer.poll(Duration.ofMillis(500)))
+                    if (key.equals(record.key()))
+                        return record;
+            }
+        }
+        throw new AssertionError("No llegó un mensaje con clave " + key + " a " + topic);
+    }
+
+    private static String command(String reference) {
+        return """
+                {"externalReference":"%s","amount":100.00,"payerEmail":"socio@example.com",
+                 "payerFirstName":"Ana","payerLastName":"Pérez","token":"tok-1","installments":1,
+                 "paymentMethodId":"visa","identificationType":"DNI","identificationNumber":"12345678"}
+                """.formatted(reference).replace("\n", "");
+    }
+
+    private static PaymentResponse approved(DirectPaymentRequest request) {
+        return new PaymentResponse(1L, "approved", "accredited", request.amount(), "ARS",
+                request.externalReference(), "visa", "credit_card", null, null, "auth", "1");
+    }
+}
@@ -0,0 +1,70 @@
+package com.msvcbilling.pii;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PiiCipherTest {
+
+    private static final String ENCRYPTION_KEY = key(1);
+    private static final String INDEX_KEY = key(2);
+
+    private final PiiCipher cipher = new PiiCipher(ENCRYPTION_KEY, INDEX_KEY);
+
+    @Test
+    void encryptedValueDecryptsToTheOriginal() {
+        byte[] encrypted = cipher.encrypt("Juan Pérez");
+
+        assertThat(cipher.decrypt(encrypted)).isEqualTo("Juan Pérez");
+        assertThat(cipher.encrypt(null)).isNull();
+        assertThat(cipher.decrypt(null)).isNull();
+    }
+
+    @Test
+    void sameValueEncryptsDifferentlyEachTime() {
+        assertThat(cipher.encrypt("juan@example.com")).isNotEqualTo(cipher.encrypt("juan@example.com"));
+    }
+
+    @Test
+    void tamperedOrForeignValuesAreRejected() {
+        byte[] encrypted = cipher.encrypt("juan@example.com");
+        encrypted[encrypted.length - 1] ^= 1;
+
+        assertThatThrownBy(() -> cipher.decrypt(encrypted)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new PiiCipher(key(3), INDEX_KEY).decrypt(cipher.encrypt("juan@example.com")))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> cipher.decrypt(new byte[]{9, 1, 2})).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void emailIndexIgnoresCaseAndSurroundingSpaces() {
+        assertThat(cipher.emailIndex(" Juan@Example.com ")).isEqualTo(cipher.emailIndex("juan@example.com"));
+        assertThat(cipher.emailIndex("otro@example.com")).isNotEqualTo(cipher.emailIndex("juan@example.com"));
+        assertThat(cipher.emailIndex("  ")).isNull();
+    }
+
+    @Test
+    void documentIndexIgnoresFormatting() {
+        assertThat(cipher.documentIndex("dni", "12.345.678")).isEqualTo(cipher.documentIndex("DNI ", "12345678"));
+        assertThat(cipher.documentIndex("CUIT", "12345678")).isNotEqualTo(cipher.documentIndex("DNI", "12345678"));
+        assertThat(cipher.documentIndex("DNI", null)).isNull();
+    }
+
+    @Test
+    void indexDependsOnTheIndexKeyOnly() {
+        assertThat(new PiiCipher(key(3), INDEX_KEY).emailIndex("juan@example.com"))
+                .isEqualTo(cipher.emailIndex("juan@example.com"));
+        assertThat(new PiiCipher(ENCRYPTION_KEY, key(3)).emailIndex("juan@example.com"))
+                .isNotEqualTo(cipher.emailIndex("juan@example.com"));
+    }
+
+    private static String key(int seed) {
+        byte[] key = new byte[32];
+        for (int i = 0; i < key.length; i++)
+            key[i] = (byte) (seed * 31 + i);
+        return Base64.getEncoder().encodeToString(key);
+    }
+}
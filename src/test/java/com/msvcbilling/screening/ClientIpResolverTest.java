@@ -0,0 +1,36 @@
+package com.msvcbilling.screening;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClientIpResolverTest {
+
+    private final ClientIpResolver resolver = new ClientIpResolver(new ScreeningProperties());
+
+    @Test
+    void directClientUsesTheRemoteAddress() {
+        assertThat(resolver.resolve(request("203.0.113.7", "198.51.100.1"))).isEqualTo("203.0.113.7");
+    }
+
+    @Test
+    void trustedProxyForwardsTheRightmostUntrustedHop() {
+        assertThat(resolver.resolve(request("10.0.0.5", "198.51.100.1, 203.0.113.7, 10.0.0.9")))
+                .isEqualTo("203.0.113.7");
+    }
+
+    @Test
+    void trustedProxyWithoutForwardedHeaderSkipsIpRules() {
+        assertThat(resolver.resolve(request("10.0.0.5", null))).isNull();
+        assertThat(resolver.resolve(request("10.0.0.5", "10.0.0.9, 192.168.1.4"))).isNull();
+    }
+
+    private static MockHttpServletRequest request(String remoteAddr, String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddr);
+        if (forwardedFor != null)
+            request.addHeader("X-Forwarded-For", forwardedFor);
+        return request;
+    }
+}
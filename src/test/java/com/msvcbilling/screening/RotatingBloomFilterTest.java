@@ -0,0 +1,64 @@
+package com.msvcbilling.screening;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RotatingBloomFilterTest {
+
+    private final AtomicLong clock = new AtomicLong(Duration.ofDays(1).toNanos());
+    private final RotatingBloomFilter filter = new RotatingBloomFilter(Duration.ofMinutes(10), 1 << 16, 4, clock::get);
+
+    @Test
+    void onlyTheFirstOccurrenceIsNew() {
+        assertThat(filter.addIfAbsent("doc:DNI:1|tok-1")).isTrue();
+        assertThat(filter.addIfAbsent("doc:DNI:1|tok-1")).isFalse();
+        assertThat(filter.addIfAbsent("doc:DNI:1|tok-2")).isTrue();
+    }
+
+    @Test
+    void distinctTokensAreCountedOnce() {
+        int distinct = 0;
+        for (int attempt = 0; attempt < 3; attempt++) {
+            for (int token = 0; token < 50; token++) {
+                if (filter.addIfAbsent("ip:1.1.1.1|tok-" + token))
+                    distinct++;
+            }
+        }
+
+        assertThat(distinct).isEqualTo(50);
+    }
+
+    @Test
+    void elementIsRememberedForTheNextWindow() {
+        filter.addIfAbsent("email:a@b.c|tok-1");
+        advance(Duration.ofMinutes(10));
+
+        assertThat(filter.addIfAbsent("email:a@b.c|tok-1")).isFalse();
+    }
+
+    @Test
+    void elementNotSeenForTwoWindowsIsForgotten() {
+        filter.addIfAbsent("email:a@b.c|tok-1");
+        advance(Duration.ofMinutes(10));
+        filter.addIfAbsent("email:x@y.z|tok-9");
+        advance(Duration.ofMinutes(10));
+
+        assertThat(filter.addIfAbsent("email:a@b.c|tok-1")).isTrue();
+    }
+
+    @Test
+    void idleGapLongerThanAWindowClearsBothGenerations() {
+        filter.addIfAbsent("email:a@b.c|tok-1");
+        advance(Duration.ofMinutes(25));
+
+        assertThat(filter.addIfAbsent("email:a@b.c|tok-1")).isTrue();
+    }
+
+    private void advance(Duration duration) {
+        clock.addAndGet(duration.toNanos());
+    }
+}
@@ -0,0 +1,70 @@
+package com.msvcbilling.screening;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlidingCountMinSketchTest {
+
+    private final AtomicLong clock = new AtomicLong(Duration.ofDays(1).toNanos());
+    private final SlidingCountMinSketch sketch = new SlidingCountMinSketch(Duration.ofMinutes(10), 5, 1024, 4, clock::get);
+
+    @Test
+    void countsOccurrencesPerKey() {
+        for (int i = 0; i < 3; i++)
+            sketch.increment("ip:1.1.1.1");
+        sketch.increment("ip:2.2.2.2");
+
+        assertThat(sketch.count("ip:1.1.1.1")).isEqualTo(3);
+        assertThat(sketch.count("ip:2.2.2.2")).isEqualTo(1);
+        assertThat(sketch.count("ip:3.3.3.3")).isZero();
+    }
+
+    @Test
+    void countDoesNotIncrement() {
+        sketch.increment("doc:DNI:1");
+
+        assertThat(sketch.count("doc:DNI:1")).isEqualTo(1);
+        assertThat(sketch.count("doc:DNI:1")).isEqualTo(1);
+    }
+
+    @Test
+    void occurrencesAcrossSubWindowsAddUpWithinTheWindow() {
+        for (int i = 0; i < 3; i++)
+            sketch.increment("email:a@b.c");
+        advance(Duration.ofMinutes(2));
+        sketch.increment("email:a@b.c");
+
+        assertThat(sketch.increment("email:a@b.c")).isEqualTo(5);
+    }
+
+    @Test
+    void occurrencesExpireOnceTheirSubWindowLeavesTheWindow() {
+        for (int i = 0; i < 3; i++)
+            sketch.increment("email:a@b.c");
+        advance(Duration.ofMinutes(2));
+        sketch.increment("email:a@b.c");
+        sketch.increment("email:a@b.c");
+
+        advance(Duration.ofMinutes(8));
+        assertThat(sketch.count("email:a@b.c")).isEqualTo(2);
+
+        advance(Duration.ofMinutes(2));
+        assertThat(sketch.count("email:a@b.c")).isZero();
+    }
+
+    @Test
+    void reusedSubWindowStartsEmpty() {
+        sketch.increment("ip:1.1.1.1");
+        advance(Duration.ofMinutes(10));
+
+        assertThat(sketch.increment("ip:1.1.1.1")).isEqualTo(1);
+    }
+
+    private void advance(Duration duration) {
+        clock.addAndGet(duration.toNanos());
+    }
+}
@@ -0,0 +1,131 @@
+package com.msvcbilling.services.impl;
+
+import com.msvcbilling.dtos.ReconciliationRequest;
+import com.msvcbilling.dtos.ReconciliationSummary;
+import com.msvcbilling.repository.PaymentArchiveRepository;
+import com.msvcbilling.repository.PaymentReconciliationView;
+import com.msvcbilling.repository.PaymentRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReconciliationServiceImplTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reportsMalformedRowsAndMatchesArchivedPayments() throws Exception {
+        Files.writeString(directory.resolve("report.csv"), """
+                SOURCE_ID,EXTERNAL_REFERENCE,TRANSACTION_TYPE,TRANSACTION_AMOUNT,TRANSACTION_DATE
+                1001,ref-1,SETTLEMENT,100.00,2026-01-10T10:00:00Z
+                1002,ref-2,SETTLEMENT,50.00,2026-01-10T11:00:00Z
+                1003,ref-3,SETTLEMENT,75.00,2026-01-10T12:00:00Z
+                abc,ref-4,SETTLEMENT,10.00,2026-01-10T13:00:00Z
+                1005,ref-5,SETTLEMENT,1O.00,2026-01-10T14:00:00Z
+                1006,ref-6,SETTLEMENT,20.00,2026-01-10T15:00:00Z
+                """);
+
+        PaymentRepository paymentRepository = mock(PaymentRepository.class);
+        PaymentArchiveRepository archiveRepository = mock(PaymentArchiveRepository.class);
+        when(paymentRepository.findByPaymentIdIn(anyCollection())).thenAnswer(invocation -> find(invocation.getArgument(0),
+                List.of(view(1001L, "ref-1", "100.00", "approved"), view(1003L, "ref-3", "70.00", "approved"))));
+        when(archiveRepository.findViewsByPaymentIdIn(anyCollection())).thenAnswer(invocation -> find(invocation.getArgument(0),
+                List.of(view(1002L, "ref-2", "50.00", "approved"))));
+
+        ReconciliationServiceImpl service = new ReconciliationServiceImpl(paymentRepository, archiveRepository,
+                mock(PlatformTransactionManager.class), directory.toString(), 2, 2, ',');
+
+        ReconciliationSummary summary = service.reconcile(new ReconciliationRequest("report.csv", "out.csv", false));
+
+        assertThat(summary.rowsRead()).isEqualTo(6);
+        assertThat(summary.rowsMatched()).isEqualTo(3);
+        assertThat(summary.amountMismatches()).isEqualTo(1);
+        assertThat(summary.missingLocal()).isEqualTo(1);
+        assertThat(summary.malformedRows()).isEqualTo(2);
+
+        List<String> lines = Files.readAllLines(directory.resolve("out.csv"));
+        assertThat(lines).hasSize(5);
+        assertThat(lines).anyMatch(line -> line.startsWith("AMOUNT_MISMATCH,1003,ref-3,"));
+        assertThat(lines).anyMatch(line -> line.startsWith("MISSING_LOCAL,1006,ref-6,"));
+        assertThat(lines).filteredOn(line -> line.startsWith("MALFORMED_ROW,")).hasSize(2)
+                .anyMatch(line -> line.contains("linea 5"))
+                .anyMatch(line -> line.contains("linea 6"));
+    }
+
+    @Test
+    void quotesFieldsThatContainSeparatorsOrQuotes() throws Exception {
+        Files.writeString(directory.resolve("report.csv"), """
+                SOURCE_ID,EXTERNAL_REFERENCE,TRANSACTION_TYPE,TRANSACTION_AMOUNT,TRANSACTION_DATE
+                1007,"ref,""7""\",SETTLEMENT,5.00,2026-01-10T10:00:00Z
+                """);
+
+        ReconciliationServiceImpl service = service();
+        service.reconcile(new ReconciliationRequest("report.csv", "out.csv", false));
+
+        List<String> lines = Files.readAllLines(directory.resolve("out.csv"));
+        assertThat(lines).containsExactly(
+                "type,payment_id,external_reference,transaction_type,report_amount,local_amount,local_status,detail",
+                "MISSING_LOCAL,1007,\"ref,\"\"7\"\"\",SETTLEMENT,5.00,,,");
+        assertThat(ReconciliationServiceImpl.split(lines.get(1), ',')).element(2).isEqualTo("ref,\"7\"");
+    }
+
+    @Test
+    void rejectsReportsOutsideTheDirectoryOrMissing() {
+        ReconciliationServiceImpl service = service();
+
+        assertThatThrownBy(() -> service.reconcile(new ReconciliationRequest("../report.csv", "out.csv", false)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.reconcile(new ReconciliationRequest("missing.csv", "out.csv", false)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private ReconciliationServiceImpl service() {
+        return new ReconciliationServiceImpl(mock(PaymentRepository.class), mock(PaymentArchiveRepository.class),
+                mock(PlatformTransactionManager.class), directory.toString(), 2, 2, ',');
+    }
+
+    private static List<PaymentReconciliationView> find(Collection<Long> ids, List<PaymentReconciliationView> views) {
+        return views.stream().filter(view -> ids.contains(view.getPaymentId())).toList();
+    }
+
+    private static PaymentReconciliationView view(Long paymentId, String reference, String amount, String status) {
+        return new View(paymentId, reference, new BigDecimal(amount), status);
+    }
+
+    private record View(Long paymentId, String externalReference, BigDecimal amount, String status)
+            implements PaymentReconciliationView {
+
+        @Override
+        public Long getPaymentId() {
+            return paymentId;
+        }
+
+        @Override
+        public String getExternalReference() {
+            return externalReference;
+        }
+
+        @Override
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        @Override
+        public String getStatus() {
+            return status;
+        }
+    }
+}
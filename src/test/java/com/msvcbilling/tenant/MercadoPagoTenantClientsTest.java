@@ -0,0 +1,115 @@
+package com.msvcbilling.tenant;
+
+import com.mercadopago.client.cardtoken.CardTokenClient;
+import com.mercadopago.client.payment.PaymentClient;
+import com.mercadopago.client.paymentmethod.PaymentMethodClient;
+import com.mercadopago.core.MPRequestOptions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class MercadoPagoTenantClientsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PaymentClient defaultPaymentClient = mock(PaymentClient.class);
+    private MercadoPagoTenantClients tenantClients;
+
+    @BeforeEach
+    void setUp() {
+        TenantProperties properties = new TenantProperties();
+        properties.setDefaultMaxConcurrentCalls(4);
+        properties.setCredentials(Map.of(
+                "gym-a", credentials("token-a", 1),
+                "gym-b", credentials("token-b", null)));
+        tenantClients = new MercadoPagoTenantClients(properties, meterRegistry, defaultPaymentClient,
+                mock(PaymentMethodClient.class), mock(CardTokenClient.class));
+    }
+
+    @Test
+    void eachTenantGetsItsOwnClientsTokenAndBulkhead() {
+        TenantClients gymA = tenantClients.forTenant("gym-a");
+        TenantClients gymB = tenantClients.forTenant("gym-b");
+
+        assertThat(gymA.accessToken()).isEqualTo("token-a");
+        assertThat(gymB.accessToken()).isEqualTo("token-b");
+        assertThat(gymA.paymentClient()).isNotSameAs(gymB.paymentClient()).isNotSameAs(defaultPaymentClient);
+        assertThat(gymA.bulkhead()).isNotSameAs(gymB.bulkhead());
+        assertThat(gymA.bulkhead().availablePermits()).isEqualTo(1);
+        assertThat(gymB.bulkhead().availablePermits()).isEqualTo(4);
+        assertThat(tenantClients.forTenant("gym-a")).isSameAs(gymA);
+    }
+
+    @Test
+    void saturatedTenantDoesNotConsumeAnotherTenantsBulkhead() {
+        TenantClients gymA = tenantClients.forTenant("gym-a");
+        TenantClients gymB = tenantClients.forTenant("gym-b");
+
+        assertThat(gymA.bulkhead().tryAcquire()).isTrue();
+
+        assertThat(gymA.bulkhead().tryAcquire()).isFalse();
+        assertThat(gymB.bulkhead().tryAcquire()).isTrue();
+        assertThat(tenantClients.forTenant(TenantContext.DEFAULT_TENANT).bulkhead().availablePermits()).isEqualTo(4);
+    }
+
+    @Test
+    void defaultTenantUsesSharedClientsAndGlobalToken() {
+        TenantClients defaults = tenantClients.forTenant(null);
+
+        assertThat(tenantClients.forTenant(TenantContext.DEFAULT_TENANT)).isSameAs(defaults);
+        assertThat(defaults.paymentClient()).isSameAs(defaultPaymentClient);
+        assertThat(defaults.accessToken()).isNull();
+    }
+
+    @Test
+    void unknownTenantIsRejected() {
+        assertThat(tenantClients.isKnown("gym-a")).isTrue();
+        assertThat(tenantClients.isKnown("gym-z")).isFalse();
+        assertThatThrownBy(() -> tenantClients.forTenant("gym-z")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void requestOptionsCarryTheTenantTokenAndKeepCustomHeaders() {
+        MPRequestOptions base = MPRequestOptions.builder()
+                .customHeaders(Map.of("x-idempotency-key", "key-1"))
+                .build();
+
+        MPRequestOptions options = tenantClients.forTenant("gym-b").options(base);
+
+        assertThat(options.getAccessToken()).isEqualTo("token-b");
+        assertThat(options.getCustomHeaders()).containsEntry("x-idempotency-key", "key-1");
+    }
+
+    @Test
+    void bulkheadGaugeIsTaggedPerTenant() {
+        tenantClients.forTenant("gym-a").bulkhead().tryAcquire();
+
+        assertThat(meterRegistry.get("billing.tenant.bulkhead.available").tag("tenant", "gym-a").gauge().value())
+                .isZero();
+        assertThat(meterRegistry.get("billing.tenant.bulkhead.available").tag("tenant", "default").gauge().value())
+                .isEqualTo(4);
+    }
+
+    @Test
+    void scopeRestoresThePreviousTenant() {
+        try (TenantContext.Scope outer = TenantContext.open("gym-a")) {
+            try (TenantContext.Scope inner = TenantContext.open("gym-b")) {
+                assertThat(TenantContext.current()).isEqualTo("gym-b");
+            }
+            assertThat(TenantContext.current()).isEqualTo("gym-a");
+        }
+        assertThat(TenantContext.current()).isEqualTo(TenantContext.DEFAULT_TENANT);
+    }
+
+    private static TenantProperties.Credentials credentials(String accessToken, Integer maxConcurrentCalls) {
+        TenantProperties.Credentials credentials = new TenantProperties.Credentials();
+        credentials.setAccessToken(accessToken);
+        credentials.setMaxConcurrentCalls(maxConcurrentCalls);
+        return credentials;
+    }
+}